@@ -49,6 +49,17 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * By default, the CFG is ignored. Analyses can override this method
+     * to choose a representation of facts that depends on the method,
+     * e.g., {@link pascal.taie.analysis.dataflow.fact.IndexedBitSetFact}
+     * over the variables of the method.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -26,7 +26,6 @@ import pascal.taie.util.collection.CollectionUtils;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -41,11 +40,19 @@ public class SetFact<E> {
     protected final Set<E> set;
 
     public SetFact(Collection<E> c) {
-        set = Sets.newHybridSet(c);
+        this(Sets.newHybridSet(c));
     }
 
     public SetFact() {
-        this(Collections.emptySet());
+        this(Sets.newHybridSet());
+    }
+
+    /**
+     * Creates a fact backed by given set. The set is not copied,
+     * so that subclasses can choose the representation of the elements.
+     */
+    protected SetFact(Set<E> set) {
+        this.set = set;
     }
 
     /**
@@ -131,7 +138,7 @@ public class SetFact<E> {
      * Creates and returns a copy of this fact.
      */
     public SetFact<E> copy() {
-        return new SetFact<>(this.set);
+        return new SetFact<>(Sets.newHybridSet(set));
     }
 
     /**
@@ -48,7 +48,7 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
                 Fact in = result.getInFact(cur);
                 Fact out = result.getOutFact(cur);
                 for(Node succ : cfg.getSuccsOf(cur)){
-                   analysis.meetInto(out, result.getInFact(succ));
+                   analysis.meetInto(result.getInFact(succ), out);
                 }
                 ok |= analysis.transferNode(cur, in, out);
             }
@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Work-list solver, which re-visits a node only when the fact flowing
+ * into it changes, i.e., for forward analyses, when the OUT fact of one
+ * of its predecessors changes, and for backward analyses, when the IN
+ * fact of one of its successors changes.
+ */
+class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Deque<Node> workList = new ArrayDeque<>(cfg.getNumberOfNodes());
+        Set<Node> inWorkList = Sets.newSet(cfg.getNumberOfNodes());
+        for (Node node : cfg.getNodes()) {
+            if (!cfg.isEntry(node)) {
+                workList.add(node);
+                inWorkList.add(node);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            inWorkList.remove(node);
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    if (!cfg.isEntry(succ) && inWorkList.add(succ)) {
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Deque<Node> workList = new ArrayDeque<>(cfg.getNumberOfNodes());
+        Set<Node> inWorkList = Sets.newSet(cfg.getNumberOfNodes());
+        // add the nodes in reverse order, so that the nodes near the exit,
+        // which are usually the successors of other nodes, are visited first
+        List<Node> nodes = new ArrayList<>(cfg.getNodes());
+        for (int i = nodes.size() - 1; i >= 0; --i) {
+            Node node = nodes.get(i);
+            if (!cfg.isExit(node)) {
+                workList.add(node);
+                inWorkList.add(node);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            inWorkList.remove(node);
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            if (analysis.transferNode(node, result.getInFact(node), out)) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    if (!cfg.isExit(pred) && inWorkList.add(pred)) {
+                        workList.add(pred);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -23,8 +23,11 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
 import pascal.taie.ir.stmt.Stmt;
@@ -37,8 +40,37 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether the facts are represented by {@link DenseCPFact}.
+     */
+    private final boolean denseFact;
+
+    /**
+     * Whether this analysis propagates values along def-use chains,
+     * see {@link SparseCPSolver}.
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+        String fact = getOptions().getString("fact");
+        if (fact == null || fact.equals("map")) {
+            denseFact = false;
+        } else if (fact.equals("dense")) {
+            denseFact = true;
+        } else {
+            throw new IllegalArgumentException("Unknown fact representation: " + fact);
+        }
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return SparseCPSolver.solve(this, cfg);
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -50,7 +82,7 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
 
-        CPFact res = new CPFact();
+        CPFact res = newInitialFact();
         for(Var arg : cfg.getIR().getParams()){
             if(canHoldInt(arg)) {
                 res.update(arg, Value.getNAC());
@@ -63,13 +95,17 @@ public class ConstantPropagation extends
     public CPFact newInitialFact() {
         // TODO - finish me
 
-        return new CPFact();
+        return denseFact ? new DenseCPFact() : new CPFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         //TODO - finish me
 
+        if (fact instanceof DenseCPFact f && target instanceof DenseCPFact t) {
+            t.meet(f);
+            return;
+        }
         fact.entries().forEach(entry -> {
             Var key = entry.getKey();
             Value v = entry.getValue();
@@ -105,11 +141,7 @@ public class ConstantPropagation extends
 
         // NOTE: 需要使用 canHoldInt 来过滤 stmt 中的 Var
 
-        boolean change = false;
-
-        for(Var key : in.keySet()){
-            change |= out.update(key, in.get(key));
-        }
+        boolean change = out.copyFrom(in);
 
         if(stmt instanceof DefinitionStmt<?, ?> def){
             LValue left = def.getLValue();
@@ -0,0 +1,497 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Function;
+
+import static pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation.canHoldInt;
+
+/**
+ * Sparse solver of constant propagation, which propagates values along
+ * def-use chains instead of through every statement.
+ * <p>
+ * The definitions are the statements that define variables which can
+ * hold int values, and the parameters of the methods. The def-use chains
+ * are derived from the reaching definitions of each method, which are
+ * discarded as soon as the chains of the method are built. While solving,
+ * the solver only keeps one value per definition and the def-use chains,
+ * and the chains are discarded after solving.
+ * <p>
+ * The facts of the nodes are not stored. {@link Result} computes them on
+ * demand from the values of the definitions, and it keeps the reaching
+ * definitions of only the method being queried. The results are the same
+ * as the ones of the dense (iterative) constant propagation.
+ */
+public class SparseCPSolver {
+
+    static final Def[] NO_DEFS = {};
+
+    private final ConstantPropagation cp;
+
+    private final Queue<Def> workList = new ArrayDeque<>();
+
+    private final OperandView operandView = new OperandView();
+
+    SparseCPSolver(ConstantPropagation cp) {
+        this.cp = cp;
+    }
+
+    /**
+     * Solves constant propagation for given CFG.
+     */
+    public static DataflowResult<Stmt, CPFact> solve(
+            ConstantPropagation cp, CFG<Stmt> cfg) {
+        SparseCPSolver solver = new SparseCPSolver(cp);
+        MethodDefs defs = solver.buildDefs(cfg);
+        solver.doSolve(List.of(defs));
+        return new Result(node -> defs);
+    }
+
+    /**
+     * @return true if given node is an invocation whose result is given
+     * by the callees, in which case it does not define any variables
+     * in its OUT fact, but on the edges to its return sites.
+     */
+    boolean isCallSite(Stmt node) {
+        return false;
+    }
+
+    /**
+     * Collects the definitions of the method which are used by other
+     * methods, before the reaching definitions of the method are discarded.
+     *
+     * @param reachIn the definitions reaching the IN of each node
+     */
+    void collectOutgoingDefs(MethodDefs defs, BitSet[] reachIn) {
+    }
+
+    /**
+     * Builds the definitions of the method of given CFG, and the def-use
+     * chains to the statements which define variables in the method.
+     * The operands of the other definitions, i.e., parameters and
+     * call sites, are left to the subclasses.
+     */
+    MethodDefs buildDefs(CFG<Stmt> cfg) {
+        MethodDefs defs = new MethodDefs(cfg);
+        BitSet[] reachIn = defs.computeReachingDefs();
+        List<Var> useVars = new ArrayList<>();
+        List<Def[]> operands = new ArrayList<>();
+        for (Def def : defs.defs) {
+            if (def.stmt != null && !isCallSite(def.stmt)) {
+                for (RValue use : def.stmt.getUses()) {
+                    if (use instanceof Var var && !useVars.contains(var)) {
+                        useVars.add(var);
+                        operands.add(defs.getReachingDefs(reachIn, def.stmt, var));
+                    }
+                }
+                def.useVars = useVars.toArray(new Var[0]);
+                def.operands = operands.toArray(new Def[0][]);
+                useVars.clear();
+                operands.clear();
+            }
+        }
+        collectOutgoingDefs(defs, reachIn);
+        return defs;
+    }
+
+    void doSolve(Collection<MethodDefs> methodDefs) {
+        for (MethodDefs defs : methodDefs) {
+            for (Def def : defs.defs) {
+                if (def.operands != null) {
+                    for (Def[] operand : def.operands) {
+                        for (Def d : operand) {
+                            d.users.add(def);
+                        }
+                    }
+                }
+                addToWorkList(def);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Def def = workList.poll();
+            def.inWorkList = false;
+            Value value = evaluate(def);
+            if (!value.equals(def.value)) {
+                def.value = value;
+                def.users.forEach(this::addToWorkList);
+            }
+        }
+        // the facts are computed from the values of definitions,
+        // thus the def-use chains are not needed any more
+        methodDefs.forEach(defs -> defs.defs.forEach(Def::clearChains));
+    }
+
+    private void addToWorkList(Def def) {
+        if (!def.inWorkList) {
+            def.inWorkList = true;
+            workList.add(def);
+        }
+    }
+
+    private Value evaluate(Def def) {
+        if (def.stmt != null && !isCallSite(def.stmt)) {
+            operandView.def = def;
+            return ConstantPropagation.evaluate(
+                    ((DefinitionStmt<?, ?>) def.stmt).getRValue(), operandView);
+        } else if (def.operands == null) {
+            // the definition does not receive values from other methods,
+            // e.g., the parameters of entry methods, which are not
+            // constants, as in the boundary fact
+            return Value.getNAC();
+        } else {
+            Value value = Value.getUndef();
+            for (Def[] operand : def.operands) {
+                value = meetValues(value, operand);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * @return the meet of given value and the values of given definitions.
+     */
+    private Value meetValues(Value value, Def[] defs) {
+        for (Def def : defs) {
+            value = meetValue(value, def.value);
+        }
+        return value;
+    }
+
+    /**
+     * Meets two values, where UNDEF is the identity.
+     */
+    private Value meetValue(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef()) {
+            return v1;
+        } else {
+            return cp.meetValue(v1, v2);
+        }
+    }
+
+    /**
+     * A definition of a variable, whose value is kept by the solver.
+     */
+    static class Def {
+
+        private final int index;
+
+        private final Var var;
+
+        /**
+         * The defining statement, or null if this definition is a parameter.
+         */
+        @Nullable
+        final Stmt stmt;
+
+        final int paramIndex;
+
+        /**
+         * The variables used by the defining statement.
+         */
+        private Var[] useVars;
+
+        /**
+         * The definitions which the value of this definition depends on.
+         * For a defining statement, they are the reaching definitions of
+         * each of {@link #useVars}. For a parameter or a call site, they
+         * are given by the subclasses, and null means that this definition
+         * is not reached by any values.
+         */
+        @Nullable
+        Def[][] operands;
+
+        /**
+         * The definitions whose values depend on the value of this definition.
+         */
+        private List<Def> users = new ArrayList<>();
+
+        private Value value = Value.getUndef();
+
+        private boolean inWorkList;
+
+        private Def(int index, Var var, @Nullable Stmt stmt, int paramIndex) {
+            this.index = index;
+            this.var = var;
+            this.stmt = stmt;
+            this.paramIndex = paramIndex;
+        }
+
+        private void clearChains() {
+            useVars = null;
+            operands = null;
+            users = null;
+        }
+    }
+
+    /**
+     * View of the IN fact of a defining statement, which gives the values
+     * of the used variables by meeting the values of their reaching
+     * definitions.
+     */
+    private class OperandView extends CPFact {
+
+        private Def def;
+
+        @Override
+        public Value get(Var key) {
+            for (int i = 0; i < def.useVars.length; ++i) {
+                if (def.useVars[i] == key) {
+                    return meetValues(Value.getUndef(), def.operands[i]);
+                }
+            }
+            return Value.getUndef();
+        }
+    }
+
+    /**
+     * The definitions of a method.
+     */
+    class MethodDefs {
+
+        final CFG<Stmt> cfg;
+
+        private final Stmt[] nodes;
+
+        private final Map<Stmt, Integer> nodeIds;
+
+        final List<Def> defs = new ArrayList<>();
+
+        /**
+         * The definitions of each variable.
+         */
+        private final Map<Var, BitSet> varDefs = Maps.newMap();
+
+        /**
+         * The definitions generated by each node. The entry node
+         * generates the definitions of the parameters.
+         */
+        private final Def[][] nodeDefs;
+
+        private MethodDefs(CFG<Stmt> cfg) {
+            this.cfg = cfg;
+            int n = cfg.getNumberOfNodes();
+            nodes = new Stmt[n];
+            nodeIds = Maps.newMap(n);
+            nodeDefs = new Def[n][];
+            for (Stmt node : cfg) {
+                int id = nodeIds.size();
+                nodes[id] = node;
+                nodeIds.put(node, id);
+                nodeDefs[id] = NO_DEFS;
+                if (node instanceof DefinitionStmt<?, ?> stmt
+                        && stmt.getLValue() instanceof Var var
+                        && canHoldInt(var)) {
+                    nodeDefs[id] = new Def[]{ newDef(var, node, -1) };
+                }
+            }
+            List<Def> params = new ArrayList<>();
+            List<Var> paramVars = cfg.getIR().getParams();
+            for (int i = 0; i < paramVars.size(); ++i) {
+                if (canHoldInt(paramVars.get(i))) {
+                    params.add(newDef(paramVars.get(i), null, i));
+                }
+            }
+            nodeDefs[getId(cfg.getEntry())] = params.toArray(NO_DEFS);
+        }
+
+        private Def newDef(Var var, @Nullable Stmt stmt, int paramIndex) {
+            Def def = new Def(defs.size(), var, stmt, paramIndex);
+            defs.add(def);
+            varDefs.computeIfAbsent(var, v -> new BitSet()).set(def.index);
+            return def;
+        }
+
+        private int getId(Stmt node) {
+            return nodeIds.get(node);
+        }
+
+        /**
+         * @return the definitions reaching the IN of each node.
+         */
+        private BitSet[] computeReachingDefs() {
+            BitSet[] reachIn = new BitSet[nodes.length];
+            for (int id = 0; id < nodes.length; ++id) {
+                reachIn[id] = new BitSet();
+            }
+            BitSet workList = new BitSet();
+            workList.set(0, nodes.length);
+            BitSet out = new BitSet();
+            for (int id = workList.nextSetBit(0); id >= 0;
+                 id = workList.nextSetBit(0)) {
+                workList.clear(id);
+                out.clear();
+                out.or(reachIn[id]);
+                for (Def def : nodeDefs[id]) {
+                    out.andNot(varDefs.get(def.var));
+                    out.set(def.index);
+                }
+                for (Stmt succ : cfg.getSuccsOf(nodes[id])) {
+                    int succId = getId(succ);
+                    BitSet succIn = reachIn[succId];
+                    int oldCardinality = succIn.cardinality();
+                    succIn.or(out);
+                    if (succIn.cardinality() != oldCardinality) {
+                        workList.set(succId);
+                    }
+                }
+            }
+            return reachIn;
+        }
+
+        /**
+         * @return the definitions of var which reach the IN of given node.
+         */
+        Def[] getReachingDefs(BitSet[] reachIn, Stmt node, Var var) {
+            BitSet defsOfVar = varDefs.get(var);
+            if (defsOfVar == null) {
+                return NO_DEFS;
+            }
+            BitSet reach = (BitSet) defsOfVar.clone();
+            reach.and(reachIn[getId(node)]);
+            if (reach.isEmpty()) {
+                return NO_DEFS;
+            }
+            Def[] result = new Def[reach.cardinality()];
+            for (int i = reach.nextSetBit(0), j = 0; i >= 0;
+                 i = reach.nextSetBit(i + 1), ++j) {
+                result[j] = defs.get(i);
+            }
+            return result;
+        }
+
+        /**
+         * @return the definitions generated by given node which take effect
+         * in the IN (if out is false) or OUT (if out is true) fact of the node.
+         */
+        private Def[] getGenDefs(Stmt node, boolean out) {
+            int id = getId(node);
+            if (cfg.isEntry(node)) {
+                // the parameters are also in the IN fact of the entry
+                return nodeDefs[id];
+            }
+            return out && !isCallSite(node) ? nodeDefs[id] : NO_DEFS;
+        }
+
+        /**
+         * @return a new fact holding the values in the IN or OUT
+         * of given node.
+         */
+        private CPFact getFact(BitSet[] reachIn, Stmt node, boolean out) {
+            Def[] genDefs = getGenDefs(node, out);
+            CPFact fact = new CPFact();
+            BitSet reach = reachIn[getId(node)];
+            for (int i = reach.nextSetBit(0); i >= 0; i = reach.nextSetBit(i + 1)) {
+                Def def = defs.get(i);
+                if (!isKilled(def, genDefs)) {
+                    fact.update(def.var, meetValue(fact.get(def.var), def.value));
+                }
+            }
+            for (Def def : genDefs) {
+                fact.update(def.var, def.value);
+            }
+            return fact;
+        }
+
+        private static boolean isKilled(Def def, Def[] genDefs) {
+            for (Def genDef : genDefs) {
+                if (genDef.var == def.var) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Result of sparse constant propagation, which computes the facts
+     * on demand. To compute the facts, it recomputes the reaching
+     * definitions of the method containing the queried node, and keeps
+     * them only until a node of another method is queried.
+     * The facts of this result cannot be set.
+     */
+    static class Result extends DataflowResult<Stmt, CPFact> {
+
+        private final Function<Stmt, MethodDefs> defsGetter;
+
+        @Nullable
+        private MethodDefs lastDefs;
+
+        @Nullable
+        private BitSet[] lastReachIn;
+
+        Result(Function<Stmt, MethodDefs> defsGetter) {
+            super(false);
+            this.defsGetter = defsGetter;
+        }
+
+        @Override
+        public CPFact getInFact(Stmt node) {
+            return getFact(node, false);
+        }
+
+        @Override
+        public void setInFact(Stmt node, CPFact fact) {
+            throw new IllegalStateException(
+                    "facts of sparse constant propagation are read-only");
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt node) {
+            return getFact(node, true);
+        }
+
+        @Override
+        public void setOutFact(Stmt node, CPFact fact) {
+            throw new IllegalStateException(
+                    "facts of sparse constant propagation are read-only");
+        }
+
+        private CPFact getFact(Stmt node, boolean out) {
+            MethodDefs defs = defsGetter.apply(node);
+            if (defs != lastDefs) {
+                lastDefs = defs;
+                lastReachIn = defs.computeReachingDefs();
+            }
+            return defs.getFact(lastReachIn, node, out);
+        }
+    }
+}
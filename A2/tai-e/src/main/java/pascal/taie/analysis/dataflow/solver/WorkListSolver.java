@@ -39,22 +39,25 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     }
 
     @Override
-    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected int doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                 Set<Node> nodes) {
         // TODO - finish me
 
         Queue<Node> q = new LinkedList<>();
         Set<Node> vis = new HashSet<>();
 
-        for(Node node : cfg){
+        for(Node node : nodes){
             if(!cfg.isEntry(node)){
                 q.add(node);
                 vis.add(node);
             }
         }
 
+        int iterations = 0;
         while(!q.isEmpty()){
             Node cur = q.poll();
             vis.remove(cur);
+            ++iterations;
 
             Fact in = result.getInFact(cur);
             Fact out = result.getOutFact(cur);
@@ -71,10 +74,12 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
                 }
             }
         }
+        return iterations;
     }
 
     @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected int doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  Set<Node> nodes) {
         throw new UnsupportedOperationException();
     }
 }
@@ -24,12 +24,42 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class CPTest {
 
     void testCP(String inputClass) {
+        testCP(inputClass, null);
+    }
+
+    /**
+     * @param options options added to the ones of constprop, or null
+     */
+    void testCP(String inputClass, String options) {
         Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
-                ConstantPropagation.ID, "edge-refine:false");
+                ConstantPropagation.ID, "edge-refine:false" +
+                        (options != null ? ";" + options : ""));
     }
 
     @Test
@@ -62,8 +92,107 @@ public class CPTest {
         testCP("BranchConstant");
     }
 
+    @Test
+    public void testBranchConstantPriorityWorkList() {
+        testCP("BranchConstant", "worklist:rpo");
+    }
+
+    @Test
+    public void testBranchConstantDenseFact() {
+        testCP("BranchConstant", "fact:dense");
+    }
+
+    @Test
+    public void testBranchConstantArrayResult() {
+        testCP("BranchConstant", "result:array;out-only:true");
+    }
+
+    @Test
+    public void testBranchConstantSparse() {
+        testCP("BranchConstant", "sparse:true");
+    }
+
     @Test
     public void testInterprocedural() {
         testCP("Interprocedural");
     }
+
+    @Test
+    public void testReanalyze() {
+        testReanalyze("edge-refine", false);
+    }
+
+    @Test
+    public void testReanalyzeArrayResult() {
+        testReanalyze("edge-refine", false, "result", "array");
+    }
+
+    /**
+     * Edits one statement in the middle of a method, and checks that
+     * re-analyzing the edited IR only transfers the statements from the
+     * edited one to the end, and it gives the same facts as analyzing
+     * the edited IR from scratch.
+     */
+    void testReanalyze(Object... options) {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        Var z = new Var(null, "z", PrimitiveType.INT, 2);
+        Set<Stmt> transferred = new HashSet<>();
+        ConstantPropagation cp = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, options)) {
+            @Override
+            public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+                transferred.add(stmt);
+                return super.transferNode(stmt, in, out);
+            }
+        };
+        IR oldIR = buildIR(x, y, z, 4);
+        DataflowResult<Stmt, CPFact> previous = cp.analyze(oldIR);
+        // the edited IR consists of new statements,
+        // and only the statement at index 6 differs
+        IR newIR = buildIR(x, y, z, 5);
+        Stmt edited = newIR.getStmt(6);
+        transferred.clear();
+        DataflowResult<Stmt, CPFact> result = cp.reanalyze(newIR, previous,
+                oldIR.getResult(CFGBuilder.ID), Set.of(edited));
+        CFG<Stmt> newCFG = newIR.getResult(CFGBuilder.ID);
+        assertTrue(transferred.contains(edited));
+        for (Stmt stmt : transferred) {
+            assertTrue(newCFG.isExit(stmt) || stmt.getIndex() >= 6);
+        }
+        DataflowResult<Stmt, CPFact> expected = cp.analyze(newIR);
+        for (Stmt stmt : newIR) {
+            assertEquals(expected.getInFact(stmt), result.getInFact(stmt));
+            assertEquals(expected.getOutFact(stmt), result.getOutFact(stmt));
+        }
+        assertEquals(Value.makeConstant(10), result.getOutFact(
+                newIR.getStmt(8)).get(z));
+    }
+
+    /**
+     * Builds the IR of a straight-line method, where the statement
+     * at index 6 assigns given constant to x.
+     */
+    private static IR buildIR(Var x, Var y, Var z, int constant) {
+        List<Stmt> stmts = List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new AssignLiteral(y, IntLiteral.get(2)),
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                new Copy(x, z),
+                new AssignLiteral(y, IntLiteral.get(3)),
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                new AssignLiteral(x, IntLiteral.get(constant)),
+                new Copy(y, x),
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                new Return(z));
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(null, null, List.of(), Set.of(z),
+                List.of(x, y, z), stmts, List.of());
+        CFGBuilder cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false));
+        ir.storeResult(CFGBuilder.ID, cfgBuilder.analyze(ir));
+        return ir;
+    }
 }
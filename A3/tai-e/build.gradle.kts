@@ -25,6 +25,27 @@ tasks.test {
     maxHeapSize = "4G"
 }
 
+// JMH benchmarks in src/jmh, e.g., run "gradlew jmh -PjmhArgs=PointsToSet"
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.named<JavaCompile>("compileJmhJava") { options.encoding = "UTF-8" }
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args = (project.findProperty("jmhArgs") as String?)?.split(" ") ?: listOf()
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
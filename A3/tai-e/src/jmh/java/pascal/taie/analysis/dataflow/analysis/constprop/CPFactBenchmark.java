@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of {@link CPFact} on facts of random values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CPFactBenchmark {
+
+    /**
+     * Number of variables in each fact.
+     */
+    @Param({"4", "64", "1024"})
+    public int size;
+
+    /**
+     * Representation of the facts.
+     */
+    @Param({"map", "dense"})
+    public String kind;
+
+    private ConstantPropagation constprop;
+
+    private CPFact fact1;
+
+    private CPFact fact2;
+
+    @Setup
+    public void setUp() {
+        constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "fact", kind));
+        Var[] vars = new Var[size];
+        for (int i = 0; i < size; ++i) {
+            vars[i] = new Var(null, "v" + i, PrimitiveType.INT, i);
+        }
+        Random random = new Random(0);
+        fact1 = makeFact(vars, random);
+        fact2 = makeFact(vars, random);
+    }
+
+    private CPFact makeFact(Var[] vars, Random random) {
+        CPFact fact = constprop.newInitialFact();
+        for (Var var : vars) {
+            int r = random.nextInt(4);
+            // keep about a quarter of the variables UNDEF (absent)
+            if (r == 1) {
+                fact.update(var, Value.getNAC());
+            } else if (r > 1) {
+                fact.update(var, Value.makeConstant(random.nextInt(2)));
+            }
+        }
+        return fact;
+    }
+
+    @Benchmark
+    public CPFact copy() {
+        return fact1.copy();
+    }
+
+    @Benchmark
+    public CPFact meetInto() {
+        CPFact target = fact2.copy();
+        constprop.meetInto(fact1, target);
+        return target;
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return fact1.equals(fact2.copy());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.util.Indexable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of {@link SetFact} and {@link IndexedBitSetFact}
+ * on facts of random indexable elements.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetFactBenchmark {
+
+    /**
+     * Number of elements in each fact.
+     */
+    @Param({"4", "64", "1024"})
+    public int size;
+
+    /**
+     * Representation of the facts.
+     */
+    @Param({"hybrid", "bitset"})
+    public String kind;
+
+    private Elem[] elems;
+
+    private SetFact<Elem> fact1;
+
+    private SetFact<Elem> fact2;
+
+    @Setup
+    public void setUp() {
+        elems = new Elem[size * 4];
+        for (int i = 0; i < elems.length; ++i) {
+            elems[i] = new Elem(i);
+        }
+        Random random = new Random(0);
+        fact1 = makeFact(random);
+        fact2 = makeFact(random);
+    }
+
+    private SetFact<Elem> makeFact(Random random) {
+        SetFact<Elem> fact = kind.equals("bitset") ?
+                new IndexedBitSetFact<>(i -> elems[i]) : new SetFact<>();
+        while (fact.size() < size) {
+            fact.add(elems[random.nextInt(elems.length)]);
+        }
+        return fact;
+    }
+
+    @Benchmark
+    public SetFact<Elem> union() {
+        SetFact<Elem> result = fact1.copy();
+        result.union(fact2);
+        return result;
+    }
+
+    @Benchmark
+    public SetFact<Elem> copy() {
+        return fact1.copy();
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return fact1.equals(fact2.copy());
+    }
+
+    private record Elem(int index) implements Indexable {
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+    }
+}
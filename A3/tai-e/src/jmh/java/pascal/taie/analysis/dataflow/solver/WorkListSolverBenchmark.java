@@ -0,0 +1,162 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the work-list solvers with gen/kill analyses
+ * on synthetic CFGs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkListSolverBenchmark {
+
+    /**
+     * Number of nodes in the CFG.
+     */
+    @Param({"64", "1024", "16384"})
+    public int size;
+
+    /**
+     * Number of distinct elements in the data-flow facts.
+     */
+    @Param({"32", "512"})
+    public int universe;
+
+    /**
+     * Work list of the solvers, see {@link Solver#makeSolver(DataflowAnalysis, String)}.
+     */
+    @Param({"fifo", "rpo"})
+    public String worklist;
+
+    private CFG<Integer> cfg;
+
+    private Solver<Integer, SetFact<Integer>> forwardSolver;
+
+    private Solver<Integer, SetFact<Integer>> backwardSolver;
+
+    @Setup
+    public void setUp() {
+        cfg = new SyntheticCFG(size);
+        forwardSolver = Solver.makeSolver(new GenKillAnalysis(true, universe), worklist);
+        backwardSolver = Solver.makeSolver(new GenKillAnalysis(false, universe), worklist);
+    }
+
+    @Benchmark
+    public DataflowResult<Integer, SetFact<Integer>> solveForward() {
+        return forwardSolver.solve(cfg);
+    }
+
+    @Benchmark
+    public DataflowResult<Integer, SetFact<Integer>> solveBackward() {
+        return backwardSolver.solve(cfg);
+    }
+
+    /**
+     * May analysis where each node generates an element and kills another.
+     */
+    private static class GenKillAnalysis
+            implements DataflowAnalysis<Integer, SetFact<Integer>> {
+
+        private final boolean isForward;
+
+        private final int universe;
+
+        private GenKillAnalysis(boolean isForward, int universe) {
+            this.isForward = isForward;
+            this.universe = universe;
+        }
+
+        @Override
+        public boolean isForward() {
+            return isForward;
+        }
+
+        @Override
+        public SetFact<Integer> newBoundaryFact(CFG<Integer> cfg) {
+            return new SetFact<>();
+        }
+
+        @Override
+        public SetFact<Integer> newInitialFact() {
+            return new SetFact<>();
+        }
+
+        @Override
+        public void meetInto(SetFact<Integer> fact, SetFact<Integer> target) {
+            target.union(fact);
+        }
+
+        @Override
+        public boolean transferNode(Integer node,
+                                    SetFact<Integer> in, SetFact<Integer> out) {
+            SetFact<Integer> result = (isForward ? in : out).copy();
+            result.remove(node * 7 % universe);
+            result.add(node % universe);
+            SetFact<Integer> old = isForward ? out : in;
+            if (!result.equals(old)) {
+                old.set(result);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Integer> edge) {
+            return false;
+        }
+
+        /**
+         * The edges of this analysis are identity transfers,
+         * which the solvers skip as {@link #needTransferEdge} is false.
+         */
+        @Override
+        public SetFact<Integer> transferEdge(Edge<Integer> edge,
+                                             SetFact<Integer> nodeFact) {
+            return nodeFact;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Synthetic CFG over integer nodes for benchmarking data-flow solvers.
+ * Nodes 0 and (size - 1) are the entry and the exit, each node falls
+ * through to the next one, and the graph also contains forward branches
+ * (every 5 nodes) and loops (every 8 nodes).
+ * <p>
+ * This CFG does not belong to any method, thus it is only for
+ * the benchmarks whose analyses never ask for the IR or the method.
+ */
+public final class SyntheticCFG implements CFG<Integer> {
+
+    private final int size;
+
+    private final Set<Integer> nodes = Sets.newHybridOrderedSet();
+
+    private final MultiMap<Integer, Edge<Integer>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Integer, Edge<Integer>> outEdges = Maps.newMultiMap();
+
+    public SyntheticCFG(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("CFG needs entry and exit");
+        }
+        this.size = size;
+        for (int i = 0; i < size; ++i) {
+            nodes.add(i);
+        }
+        addEdge(Edge.Kind.ENTRY, 0, 1);
+        for (int i = 1; i < size - 1; ++i) {
+            addEdge(Edge.Kind.FALL_THROUGH, i, i + 1);
+            if (i % 5 == 0) {
+                addEdge(Edge.Kind.IF_TRUE, i, Math.min(i + 3, size - 1));
+            }
+            if (i % 8 == 7) {
+                addEdge(Edge.Kind.GOTO, i, i - 6);
+            }
+        }
+    }
+
+    private void addEdge(Edge.Kind kind, int source, int target) {
+        Edge<Integer> edge = new Edge<>(kind, source, target);
+        outEdges.put(source, edge);
+        inEdges.put(target, edge);
+    }
+
+    @Override
+    public IR getIR() {
+        throw new UnsupportedOperationException(
+                "SyntheticCFG is not built from IR");
+    }
+
+    @Override
+    public JMethod getMethod() {
+        throw new UnsupportedOperationException(
+                "SyntheticCFG does not belong to any method");
+    }
+
+    @Override
+    public Integer getEntry() {
+        return 0;
+    }
+
+    @Override
+    public Integer getExit() {
+        return size - 1;
+    }
+
+    @Override
+    public boolean isEntry(Integer node) {
+        return node == 0;
+    }
+
+    @Override
+    public boolean isExit(Integer node) {
+        return node == size - 1;
+    }
+
+    @Override
+    public boolean hasNode(Integer node) {
+        return nodes.contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(Integer source, Integer target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<Integer> getPredsOf(Integer node) {
+        return Views.toMappedSet(inEdges.get(node), Edge::getSource);
+    }
+
+    @Override
+    public Set<Integer> getSuccsOf(Integer node) {
+        return Views.toMappedSet(outEdges.get(node), Edge::getTarget);
+    }
+
+    @Override
+    public Set<Edge<Integer>> getInEdgesOf(Integer node) {
+        return inEdges.get(node);
+    }
+
+    @Override
+    public Set<Edge<Integer>> getOutEdgesOf(Integer node) {
+        return outEdges.get(node);
+    }
+
+    @Override
+    public Set<Integer> getNodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Runs a per-method analysis over all methods in scope on a work-stealing
+ * pool with given number of threads.
+ * <p>
+ * The result of each method is produced and stored into its {@link IR}
+ * by a single task, thus the results of different methods can be stored
+ * concurrently. This driver is called by the analyses themselves (e.g.,
+ * {@link pascal.taie.analysis.dataflow.analysis.DeadCodeDetection}),
+ * and it does not replace the scheduling of {@link AnalysisManager}.
+ */
+public class ParallelMethodAnalysisDriver {
+
+    private static final Logger logger = LogManager.getLogger(ParallelMethodAnalysisDriver.class);
+
+    private final int threads;
+
+    public ParallelMethodAnalysisDriver(int threads) {
+        if (threads < 1) {
+            throw new ConfigException("Number of threads must be positive, " +
+                    "but given " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Runs given analysis on all methods in scope, and stores its
+     * non-null results into the IRs of the methods with given ID.
+     */
+    public void run(String id, Function<IR, ?> analysis) {
+        run(getMethodScope(), id, analysis);
+    }
+
+    /**
+     * Runs given analysis on the given methods, and stores its
+     * non-null results into the IRs of the methods with given ID.
+     */
+    public void run(List<JMethod> methods, String id, Function<IR, ?> analysis) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> methods.parallelStream().forEach(m -> {
+                IR ir = m.getIR();
+                Object result = analysis.apply(ir);
+                if (result != null) {
+                    ir.storeResult(id, result);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted while running " + id, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new AnalysisException("Failed to run " + id, e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        logger.info("{} methods analyzed by {} on {} threads",
+                methods.size(), id, threads);
+    }
+
+    /**
+     * @return the methods in the scope of method analyses, i.e.,
+     * the same methods as the ones of {@link AnalysisManager}.
+     */
+    private static List<JMethod> getMethodScope() {
+        String scope = World.get().getOptions().getScope();
+        // scope "reachable" is not supported, as call graph
+        // construction is not available in this assignment
+        List<JClass> classes = switch (scope) {
+            case "app" -> World.get()
+                    .getClassHierarchy()
+                    .applicationClasses()
+                    .toList();
+            case "all" -> World.get()
+                    .getClassHierarchy()
+                    .allClasses()
+                    .toList();
+            default -> throw new ConfigException(
+                    "Unexpected scope option: " + scope);
+        };
+        return classes.stream()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .toList();
+    }
+}
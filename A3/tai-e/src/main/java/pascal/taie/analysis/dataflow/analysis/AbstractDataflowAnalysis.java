@@ -31,6 +31,8 @@ import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 
+import java.util.Set;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
@@ -48,6 +50,22 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
         return solver.solve(cfg);
     }
 
+    /**
+     * Re-analyzes given IR after it has been edited, by re-solving only
+     * the part of its CFG which is affected by the edit.
+     *
+     * @param previous the result of this analysis on the IR before the edit
+     * @param oldCFG   the CFG of the IR before the edit
+     * @param changed  the statements which have been changed by the edit
+     * @see Solver#resolve(DataflowResult, CFG, CFG, Set)
+     */
+    public DataflowResult<Node, Fact> reanalyze(
+            IR ir, DataflowResult<Node, Fact> previous,
+            CFG<Node> oldCFG, Set<Node> changed) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        return solver.resolve(previous, oldCFG, cfg, changed);
+    }
+
     /**
      * By default, a data-flow analysis does not have edge transfer, i.e.,
      * does not need to perform transfer for any edges.
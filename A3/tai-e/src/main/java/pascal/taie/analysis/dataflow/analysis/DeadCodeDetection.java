@@ -24,14 +24,17 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.ParallelMethodAnalysisDriver;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.PrunedCFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
@@ -40,28 +43,143 @@ import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.SwitchStmt;
 
+import javax.annotation.Nullable;
 import java.util.*;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * Whether this analysis computes constants and live variables by itself
+     * (see {@link #analyzeFused(IR, CFG)}), instead of taking the results
+     * of {@link ConstantPropagation} and {@link LiveVariableAnalysis}.
+     * This mode is selected by option "fused" of this analysis; the
+     * analysis configuration of the framework still requires constprop
+     * and livevar, thus they are scheduled before this analysis,
+     * but their results are not read.
+     */
+    private final boolean fused;
+
+    /**
+     * Whether the live variables are computed only over the CFG edges
+     * which are feasible under the constant conditions of branches.
+     */
+    private final boolean conditionalLiveness;
+
+    @Nullable
+    private final ConstantPropagation constprop;
+
+    @Nullable
+    private final LiveVariableAnalysis livevar;
+
+    /**
+     * If option "threads" is given, the driver which detects dead code
+     * of all methods on a pool with the given number of threads when
+     * this analysis is run on the first method.
+     */
+    @Nullable
+    private final ParallelMethodAnalysisDriver driver;
+
+    private boolean driven = false;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        fused = getOptions().getBooleanOrDefault("fused", false);
+        conditionalLiveness = getOptions().getBooleanOrDefault(
+                "conditional-liveness", false);
+        constprop = fused ? new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false))
+                : null;
+        livevar = fused || conditionalLiveness ? new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", false))
+                : null;
+        driver = getOptions().get("threads") != null ?
+                new ParallelMethodAnalysisDriver(getOptions().getInt("threads")) :
+                null;
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
+        if (driver != null) {
+            driveOnce();
+            Set<Stmt> deadCode = ir.getResult(ID);
+            if (deadCode != null) {
+                return deadCode;
+            }
+        }
+        return detect(ir);
+    }
+
+    /**
+     * Detects dead code of all methods by {@link #driver}. With option
+     * "fused", the constants and live variables of each method are
+     * also computed by the task of the method.
+     */
+    private synchronized void driveOnce() {
+        if (!driven) {
+            driver.run(ID, this::detect);
+            driven = true;
+        }
+    }
+
+    private Set<Stmt> detect(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (fused) {
+            return analyzeFused(ir, cfg);
+        }
         // obtain result of constant propagation
         DataflowResult<Stmt, CPFact> constants = ir.getResult(ConstantPropagation.ID);
+        if (conditionalLiveness) {
+            return analyzeConditionally(cfg, constants);
+        }
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars = ir.getResult(LiveVariableAnalysis.ID);
+        Set<Stmt> reachable = findReachable(cfg, constants, null);
+        return collectDeadCode(cfg, reachable, liveVars);
+    }
 
-        // keep statements (dead code) sorted in the resulting set
-        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+    /**
+     * Detects dead code of a method in one pass which computes constants,
+     * branch-pruned reachability and live variables in turn. The facts
+     * of each stage are dropped as soon as the next stage starts, thus
+     * at most one {@link DataflowResult} of the method is alive, and
+     * the results are not stored in the {@link IR}.
+     */
+    private Set<Stmt> analyzeFused(IR ir, CFG<Stmt> cfg) {
+        if (conditionalLiveness) {
+            return analyzeConditionally(cfg, constprop.analyze(ir));
+        }
+        Set<Stmt> reachable = findReachable(cfg, constprop.analyze(ir), null);
+        return collectDeadCode(cfg, reachable, livevar.analyze(ir));
+    }
 
+    /**
+     * Detects dead code of a method by solving live variables only over
+     * the feasible edges. As the uses in unreachable code are ignored,
+     * this may find more dead assignments than the unconditional liveness.
+     */
+    private Set<Stmt> analyzeConditionally(
+            CFG<Stmt> cfg, DataflowResult<Stmt, CPFact> constants) {
+        Set<Edge<Stmt>> feasibleEdges = new HashSet<>();
+        Set<Stmt> reachable = findReachable(cfg, constants, feasibleEdges);
+        CFG<Stmt> prunedCFG = new PrunedCFG<>(cfg, feasibleEdges);
+        DataflowResult<Stmt, SetFact<Var>> liveVars =
+                Solver.makeSolver(livevar).solve(prunedCFG);
+        return collectDeadCode(cfg, reachable, liveVars);
+    }
+
+    /**
+     * @param feasibleEdges if it is not null, the edges traversed by
+     *                      the search are added to it.
+     * @return the statements reachable from the entry of cfg, where the
+     * branches of if and switch statements whose conditions are
+     * constants are pruned.
+     */
+    private Set<Stmt> findReachable(
+            CFG<Stmt> cfg, DataflowResult<Stmt, CPFact> constants,
+            @Nullable Set<Edge<Stmt>> feasibleEdges) {
         // TODO - finish me
 
         Set<Stmt> vis = new HashSet<>();
@@ -81,7 +199,7 @@ public class DeadCodeDetection extends MethodAnalysis {
 
                     for(Edge<Stmt> edge : cfg.getOutEdgesOf(cur)){
                         if(edge.getKind() == need){
-                            insert(vis, q, edge.getTarget());
+                            insert(vis, q, edge, feasibleEdges);
                             break;
                         }
                     }
@@ -92,35 +210,55 @@ public class DeadCodeDetection extends MethodAnalysis {
                 Value res = ConstantPropagation.evaluate(switchStmt.getVar(), in);
 
                 if(res.isConstant()){
-                    boolean gone = false;
+                    Edge<Stmt> taken = null;
                     for(Edge<Stmt> edge : cfg.getOutEdgesOf(cur)){
                         if(edge.getKind() == Edge.Kind.SWITCH_CASE && res.getConstant() == edge.getCaseValue()){
-                            gone = true;
-                            insert(vis, q, edge.getTarget());
+                            taken = edge;
                             break;
                         }
                     }
-                    if(!gone){
-                        insert(vis, q, switchStmt.getDefaultTarget());
+                    if(taken == null){
+                        for(Edge<Stmt> edge : cfg.getOutEdgesOf(cur)){
+                            if(edge.getKind() == Edge.Kind.SWITCH_DEFAULT){
+                                taken = edge;
+                                break;
+                            }
+                        }
                     }
-                    continue;
-                }
-            }else if(cur instanceof AssignStmt<?,?> assign){
-                if(assign.getLValue() instanceof Var L) {
-                    if (hasNoSideEffect(assign.getRValue()) && !liveVars.getOutFact(cur).contains(L)) {
-                        deadCode.add(cur);
+                    // without the taken edge, all successors are
+                    // conservatively treated as reachable
+                    if(taken != null){
+                        insert(vis, q, taken, feasibleEdges);
+                        continue;
                     }
                 }
             }
 
-            for(Stmt succ : cfg.getSuccsOf(cur)){
-                insert(vis, q, succ);
+            for(Edge<Stmt> edge : cfg.getOutEdgesOf(cur)){
+                insert(vis, q, edge, feasibleEdges);
             }
         }
+        return vis;
+    }
+
+    /**
+     * @return the unreachable statements and the dead assignments
+     * among the reachable statements.
+     */
+    private Set<Stmt> collectDeadCode(CFG<Stmt> cfg, Set<Stmt> reachable,
+                                      DataflowResult<Stmt, SetFact<Var>> liveVars) {
+        // keep statements (dead code) sorted in the resulting set
+        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
 
         for(Stmt node : cfg){
-            if(!vis.contains(node)){
+            if(!reachable.contains(node)){
                 deadCode.add(node);
+            }else if(node instanceof AssignStmt<?,?> assign){
+                if(assign.getLValue() instanceof Var L) {
+                    if (hasNoSideEffect(assign.getRValue()) && !liveVars.getOutFact(node).contains(L)) {
+                        deadCode.add(node);
+                    }
+                }
             }
         }
 
@@ -129,12 +267,18 @@ public class DeadCodeDetection extends MethodAnalysis {
         return deadCode;
     }
 
-    private void insert(Set<Stmt> vis, Queue<Stmt> q, Stmt node){
+    private void insert(Set<Stmt> vis, Queue<Stmt> q, Edge<Stmt> edge,
+                        @Nullable Set<Edge<Stmt>> feasibleEdges){
+        if(feasibleEdges != null){
+            feasibleEdges.add(edge);
+        }
+        Stmt node = edge.getTarget();
         if(!vis.contains(node)){
             q.add(node);
             vis.add(node);
         }
     }
+
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
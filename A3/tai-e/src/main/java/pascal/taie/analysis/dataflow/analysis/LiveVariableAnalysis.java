@@ -22,10 +22,10 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
-import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
@@ -52,7 +52,7 @@ public class LiveVariableAnalysis extends
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
 
-        return new SetFact<>();
+        return newInitialFact(cfg);
     }
 
     @Override
@@ -62,32 +62,38 @@ public class LiveVariableAnalysis extends
         return new SetFact<>();
     }
 
+    /**
+     * Variables are {@link pascal.taie.util.Indexable} in their method,
+     * so the facts are represented as bit vectors over the variable indexes.
+     */
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return new IndexedBitSetFact<>(cfg.getIR()::getVar);
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         // TODO - finish me
 
-        fact.union(target);
+        target.union(fact);
     }
 
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
         // TODO - finish me
 
-        LValue def = stmt.getDef().orElse(null);
-
-        boolean change = false;
-
-        for(Var x : out.stream().toList()){
-            if(!x.equals(def)){
-                change |= in.add(x);
-            }
+        int oldSize = in.size();
+        Var def = stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        boolean killDef = def != null && !in.contains(def);
+        in.union(out);
+        if (killDef) {
+            in.remove(def);
         }
-
-        for(RValue val : stmt.getUses()){
-            if(val instanceof Var x){
-                change |= in.add(x);
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var) {
+                in.add(var);
             }
         }
-        return change;
+        return in.size() != oldSize;
     }
 }
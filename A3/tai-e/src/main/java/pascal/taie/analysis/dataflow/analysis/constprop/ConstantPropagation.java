@@ -37,8 +37,21 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether the facts are represented by {@link DenseCPFact}.
+     */
+    private final boolean denseFact;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        String fact = getOptions().getString("fact");
+        if (fact == null || fact.equals("map")) {
+            denseFact = false;
+        } else if (fact.equals("dense")) {
+            denseFact = true;
+        } else {
+            throw new IllegalArgumentException("Unknown fact representation: " + fact);
+        }
     }
 
     @Override
@@ -50,7 +63,7 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
 
-        CPFact res = new CPFact();
+        CPFact res = newInitialFact();
         for(Var arg : cfg.getIR().getParams()){
             if(canHoldInt(arg)) {
                 res.update(arg, Value.getNAC());
@@ -63,13 +76,17 @@ public class ConstantPropagation extends
     public CPFact newInitialFact() {
         // TODO - finish me
 
-        return new CPFact();
+        return denseFact ? new DenseCPFact() : new CPFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
 
+        if (fact instanceof DenseCPFact f && target instanceof DenseCPFact t) {
+            t.meet(f);
+            return;
+        }
         fact.entries().forEach(entry -> {
             Var key = entry.getKey();
             Value v = entry.getValue();
@@ -105,11 +122,7 @@ public class ConstantPropagation extends
 
         // NOTE: 需要使用 canHoldInt 来过滤 stmt 中的 Var
 
-        boolean change = false;
-
-        for(Var key : in.keySet()){
-            change |= out.update(key, in.get(key));
-        }
+        boolean change = out.copyFrom(in);
 
         if(stmt instanceof DefinitionStmt<?, ?> def){
             LValue left = def.getLValue();
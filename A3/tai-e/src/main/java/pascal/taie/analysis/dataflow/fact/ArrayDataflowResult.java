@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import javax.annotation.Nullable;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link DataflowResult} which stores the facts in arrays indexed by
+ * a dense numbering of the nodes, e.g., the indexes of statements in IR,
+ * instead of hash maps. This avoids a map entry per node for each of
+ * the IN and OUT facts, and the maps of {@link DataflowResult} are
+ * not allocated.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class ArrayDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final ToIntFunction<Node> indexer;
+
+    @Nullable
+    private Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    @Nullable
+    private Function<Node, Fact> inFactComputer;
+
+    /**
+     * @param capacity the number of nodes
+     * @param indexer  maps each node to a distinct index in [0, capacity)
+     */
+    public ArrayDataflowResult(int capacity, ToIntFunction<Node> indexer) {
+        super(false);
+        this.indexer = indexer;
+        this.inFacts = new Object[capacity];
+        this.outFacts = new Object[capacity];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Node node) {
+        return inFacts != null ?
+                (Fact) inFacts[indexer.applyAsInt(node)] :
+                inFactComputer.apply(node);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        if (inFacts == null) {
+            throw new IllegalStateException(
+                    "flowing-in facts have been discarded");
+        }
+        inFacts[indexer.applyAsInt(node)] = fact;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Node node) {
+        return (Fact) outFacts[indexer.applyAsInt(node)];
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        outFacts[indexer.applyAsInt(node)] = fact;
+    }
+
+    @Override
+    public void discardInFacts(Function<Node, Fact> inFactComputer) {
+        this.inFactComputer = inFactComputer;
+        inFacts = null;
+    }
+}
@@ -22,8 +22,10 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
+import javax.annotation.Nullable;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * An object which manages the data-flow facts associated with nodes.
@@ -33,25 +35,62 @@ import java.util.Map;
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> inFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> outFacts;
+
+    /**
+     * Computes the flowing-in facts after they are discarded,
+     * or null if the flowing-in facts are kept.
+     */
+    @Nullable
+    private Function<Node, Fact> inFactComputer;
+
+    public DataflowResult() {
+        this(true);
+    }
+
+    /**
+     * @param keepFacts whether this result keeps the facts in maps.
+     *                  The subclasses which keep (or compute) the facts
+     *                  by themselves pass false to avoid allocating the maps,
+     *                  and they must override all the accessors of facts.
+     */
+    protected DataflowResult(boolean keepFacts) {
+        inFacts = keepFacts ? new LinkedHashMap<>() : null;
+        outFacts = keepFacts ? new LinkedHashMap<>() : null;
+    }
 
     /**
      * @return the flowing-in fact of given node.
      */
     @Override
     public Fact getInFact(Node node) {
-        return inFacts.get(node);
+        return inFactComputer != null ?
+                inFactComputer.apply(node) : inFacts.get(node);
     }
 
     /**
      * Associates a data-flow fact with a node as its flowing-in fact.
      */
     public void setInFact(Node node, Fact fact) {
+        if (inFactComputer != null) {
+            throw new IllegalStateException(
+                    "flowing-in facts have been discarded");
+        }
         inFacts.put(node, fact);
     }
 
+    /**
+     * Discards the flowing-in facts of all nodes. Afterwards, the flowing-in
+     * facts are computed on demand by given function, and new flowing-in
+     * facts cannot be set.
+     */
+    public void discardInFacts(Function<Node, Fact> inFactComputer) {
+        this.inFactComputer = inFactComputer;
+        inFacts.clear();
+    }
+
     /**
      * @return the flowing-out fact of given node.
      */
@@ -0,0 +1,295 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Set-like data-flow facts over {@link Indexable} elements, represented
+ * as bit vectors stored in {@code long} words. Union, intersection,
+ * copy and equality between two such facts are computed word by word.
+ *
+ * @param <E> type of elements
+ */
+public class IndexedBitSetFact<E extends Indexable> extends SetFact<E> {
+
+    /**
+     * @param decoder maps an index back to the element with the index.
+     */
+    public IndexedBitSetFact(IntFunction<E> decoder) {
+        this(new IndexedBitSet<>(decoder, new long[0]));
+    }
+
+    private IndexedBitSetFact(IndexedBitSet<E> set) {
+        super(set);
+    }
+
+    private IndexedBitSet<E> bits() {
+        return (IndexedBitSet<E>) set;
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other.set instanceof IndexedBitSet<E> otherBits) {
+            bits().setWords(otherBits);
+        } else {
+            super.set(other);
+        }
+    }
+
+    @Override
+    public IndexedBitSetFact<E> copy() {
+        IndexedBitSet<E> bits = bits();
+        return new IndexedBitSetFact<>(new IndexedBitSet<>(
+                bits.decoder, bits.words.clone()));
+    }
+
+    private static class IndexedBitSet<E extends Indexable>
+            extends AbstractSet<E> {
+
+        private static final int ADDRESS_BITS_PER_WORD = 6;
+
+        private final IntFunction<E> decoder;
+
+        private long[] words;
+
+        private IndexedBitSet(IntFunction<E> decoder, long[] words) {
+            this.decoder = decoder;
+            this.words = words;
+        }
+
+        private static int wordIndex(int bitIndex) {
+            return bitIndex >> ADDRESS_BITS_PER_WORD;
+        }
+
+        private void ensureCapacity(int wordsRequired) {
+            if (words.length < wordsRequired) {
+                words = Arrays.copyOf(words,
+                        Math.max(2 * words.length, wordsRequired));
+            }
+        }
+
+        private boolean get(int bitIndex) {
+            int wordIndex = wordIndex(bitIndex);
+            return wordIndex < words.length &&
+                    (words[wordIndex] & (1L << bitIndex)) != 0;
+        }
+
+        private void clear(int bitIndex) {
+            words[wordIndex(bitIndex)] &= ~(1L << bitIndex);
+        }
+
+        private int nextSetBit(int fromIndex) {
+            int u = wordIndex(fromIndex);
+            if (u >= words.length) {
+                return -1;
+            }
+            long word = words[u] & (-1L << fromIndex);
+            while (true) {
+                if (word != 0) {
+                    return (u << ADDRESS_BITS_PER_WORD) +
+                            Long.numberOfTrailingZeros(word);
+                }
+                if (++u == words.length) {
+                    return -1;
+                }
+                word = words[u];
+            }
+        }
+
+        private void setWords(IndexedBitSet<?> other) {
+            if (words.length < other.words.length) {
+                words = other.words.clone();
+            } else {
+                System.arraycopy(other.words, 0, words, 0, other.words.length);
+                Arrays.fill(words, other.words.length, words.length, 0);
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Indexable e) {
+                int index = e.getIndex();
+                return get(index) && o.equals(decoder.apply(index));
+            }
+            return false;
+        }
+
+        @Override
+        public boolean add(E e) {
+            int bitIndex = e.getIndex();
+            int wordIndex = wordIndex(bitIndex);
+            ensureCapacity(wordIndex + 1);
+            long old = words[wordIndex];
+            words[wordIndex] = old | (1L << bitIndex);
+            return words[wordIndex] != old;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o)) {
+                clear(((Indexable) o).getIndex());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends E> c) {
+            if (c instanceof IndexedBitSet<?> other) {
+                long[] otherWords = other.words;
+                ensureCapacity(otherWords.length);
+                long changed = 0;
+                for (int i = 0; i < otherWords.length; ++i) {
+                    long old = words[i];
+                    words[i] = old | otherWords[i];
+                    changed |= words[i] ^ old;
+                }
+                return changed != 0;
+            }
+            return super.addAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            if (c instanceof IndexedBitSet<?> other) {
+                long[] otherWords = other.words;
+                long changed = 0;
+                for (int i = 0; i < words.length; ++i) {
+                    long old = words[i];
+                    words[i] = i < otherWords.length ? old & otherWords[i] : 0;
+                    changed |= words[i] ^ old;
+                }
+                return changed != 0;
+            }
+            return super.retainAll(c);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            if (c instanceof IndexedBitSet<?> other) {
+                long[] otherWords = other.words;
+                int n = Math.min(words.length, otherWords.length);
+                long changed = 0;
+                for (int i = 0; i < n; ++i) {
+                    long old = words[i];
+                    words[i] = old & ~otherWords[i];
+                    changed |= words[i] ^ old;
+                }
+                return changed != 0;
+            }
+            return super.removeAll(c);
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(words, 0);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = nextSetBit(0);
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public E next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = nextSetBit(next + 1);
+                    return decoder.apply(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    clear(last);
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o instanceof IndexedBitSet<?> other) {
+                long[] shorter = words, longer = other.words;
+                if (shorter.length > longer.length) {
+                    shorter = other.words;
+                    longer = words;
+                }
+                for (int i = 0; i < shorter.length; ++i) {
+                    if (shorter[i] != longer[i]) {
+                        return false;
+                    }
+                }
+                for (int i = shorter.length; i < longer.length; ++i) {
+                    if (longer[i] != 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return super.equals(o);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Work-list solver which always visits the pending node that comes first
+ * in reverse postorder of the CFG (for backward analyses, in reverse
+ * postorder of the reversed CFG). Thus, a node is usually visited after
+ * its predecessors (successors for backward analyses) in the same pass,
+ * and loops are iterated inside-out, which needs fewer iterations than
+ * a FIFO work list.
+ * <p>
+ * The work list is a bit set over the order numbers of the nodes.
+ */
+class PriorityWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected int doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                 Set<Node> nodes) {
+        NodeOrder<Node> order = new NodeOrder<>(cfg, cfg.getEntry(), cfg::getSuccsOf);
+        BitSet workList = new BitSet(order.size());
+        for (Node node : nodes) {
+            workList.set(order.getNumber(node));
+        }
+        workList.clear(order.getNumber(cfg.getEntry()));
+        int iterations = 0;
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            ++iterations;
+            Node node = order.getNode(i);
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.set(order.getNumber(succ));
+                }
+            }
+        }
+        return iterations;
+    }
+
+    @Override
+    protected int doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  Set<Node> nodes) {
+        NodeOrder<Node> order = new NodeOrder<>(cfg, cfg.getExit(), cfg::getPredsOf);
+        BitSet workList = new BitSet(order.size());
+        for (Node node : nodes) {
+            workList.set(order.getNumber(node));
+        }
+        workList.clear(order.getNumber(cfg.getExit()));
+        int iterations = 0;
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            ++iterations;
+            Node node = order.getNode(i);
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            if (analysis.transferNode(node, result.getInFact(node), out)) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.set(order.getNumber(pred));
+                }
+            }
+        }
+        return iterations;
+    }
+
+    /**
+     * Numbers the nodes of a CFG in reverse postorder of the depth-first
+     * traversal from a root along given direction. The nodes which are
+     * unreachable from the root are numbered after the reachable ones.
+     */
+    private static class NodeOrder<Node> {
+
+        private final List<Node> nodes;
+
+        private final Map<Node, Integer> numbers;
+
+        private NodeOrder(CFG<Node> cfg, Node root,
+                          Function<Node, Set<Node>> getSuccs) {
+            int size = cfg.getNumberOfNodes();
+            numbers = Maps.newMap(size);
+            List<Node> postorder = new ArrayList<>(size);
+            // iterative depth-first traversal, so that large CFGs
+            // do not overflow the stack
+            Deque<Iterator<Node>> stack = new ArrayDeque<>();
+            Deque<Node> path = new ArrayDeque<>();
+            numbers.put(root, -1);
+            path.push(root);
+            stack.push(getSuccs.apply(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> succs = stack.peek();
+                if (succs.hasNext()) {
+                    Node succ = succs.next();
+                    if (!numbers.containsKey(succ)) {
+                        numbers.put(succ, -1);
+                        path.push(succ);
+                        stack.push(getSuccs.apply(succ).iterator());
+                    }
+                } else {
+                    stack.pop();
+                    postorder.add(path.pop());
+                }
+            }
+            nodes = new ArrayList<>(size);
+            for (int i = postorder.size() - 1; i >= 0; --i) {
+                nodes.add(postorder.get(i));
+            }
+            for (Node node : cfg) {
+                if (!numbers.containsKey(node)) {
+                    nodes.add(node);
+                }
+            }
+            for (int i = 0; i < nodes.size(); ++i) {
+                numbers.put(nodes.get(i), i);
+            }
+        }
+
+        private int size() {
+            return nodes.size();
+        }
+
+        private Node getNode(int number) {
+            return nodes.get(number);
+        }
+
+        private int getNumber(Node node) {
+            return numbers.get(node);
+        }
+    }
+}
@@ -22,9 +22,26 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.ArrayDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -35,18 +52,69 @@ import pascal.taie.analysis.graph.cfg.CFG;
  */
 public abstract class Solver<Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(Solver.class);
+
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * Whether the facts are stored in arrays indexed by the statement
+     * indexes, see {@link ArrayDataflowResult}.
+     */
+    private boolean arrayResult;
+
+    /**
+     * Whether only the OUT facts are kept after solving,
+     * and the IN facts are recomputed on demand.
+     */
+    private boolean outOnly;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
         this.analysis = analysis;
     }
 
     /**
      * Static factory method to create a new solver for given analysis.
+     * If the analysis is a method analysis, its option "worklist"
+     * selects the work list of the solver, option "result" selects
+     * the storage of the facts ("map" or "array"), and option "out-only"
+     * makes the result keep only the OUT facts.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        if (!(analysis instanceof MethodAnalysis methodAnalysis)) {
+            return makeSolver(analysis, null);
+        }
+        AnalysisOptions options = methodAnalysis.getOptions();
+        Solver<Node, Fact> solver = makeSolver(analysis,
+                options.getString("worklist"));
+        String result = options.getString("result");
+        if (result == null || result.equals("map")) {
+            solver.arrayResult = false;
+        } else if (result.equals("array")) {
+            solver.arrayResult = true;
+        } else {
+            throw new IllegalArgumentException("Unknown result storage: " + result);
+        }
+        solver.outOnly = options.getBooleanOrDefault("out-only", false);
+        return solver;
+    }
+
+    /**
+     * Static factory method to create a new solver for given analysis.
+     *
+     * @param worklist the work list of the solver: a FIFO queue
+     *                 ("fifo" or null), or a priority queue which visits
+     *                 the nodes in reverse postorder ("rpo").
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String worklist) {
+        if (worklist == null || worklist.equals("fifo")) {
+            return new WorkListSolver<>(analysis);
+        } else if (worklist.equals("rpo")) {
+            return new PriorityWorkListSolver<>(analysis);
+        } else {
+            throw new IllegalArgumentException("Unknown work list: " + worklist);
+        }
     }
 
     /**
@@ -58,16 +126,167 @@ public abstract class Solver<Node, Fact> {
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
+        if (outOnly) {
+            result.discardInFacts(node -> computeInFact(cfg, result, node));
+        }
+        return result;
+    }
+
+    /**
+     * Re-solves the data-flow problem after the method has been edited.
+     * Only the facts of the nodes affected by the edit are re-initialized,
+     * and the work list starts from these nodes, so the cost of solving
+     * depends on the size of the affected region instead of the method.
+     * <p>
+     * The CFG of the edited IR is built with new nodes, thus the nodes
+     * of the two CFGs are matched by structure: the entry and exit nodes
+     * are matched to each other, and the statements are matched by their
+     * indexes in the IR. The affected nodes are the changed nodes, the nodes
+     * without matched old nodes, the nodes whose edges differ from the edges
+     * of their matched old nodes, and the nodes reachable from them along
+     * the direction of the analysis. The facts of the other nodes do not
+     * depend on the edit, thus they are taken from the matched old nodes
+     * in the previous result.
+     *
+     * @param previous the result of this solver on oldCFG. Its facts are
+     *                 taken over by the new result, thus it should not be
+     *                 used afterwards.
+     * @param oldCFG   the CFG before the edit
+     * @param newCFG   the CFG after the edit. The edit should keep the
+     *                 variables of the method, which the facts refer to.
+     * @param changed  the nodes in newCFG whose statements differ from
+     *                 the statements at the same indexes in oldCFG
+     * @return the analysis result on newCFG
+     */
+    public DataflowResult<Node, Fact> resolve(
+            DataflowResult<Node, Fact> previous, CFG<Node> oldCFG,
+            CFG<Node> newCFG, Set<Node> changed) {
+        Map<Node, Node> oldNodes = matchNodes(oldCFG, newCFG);
+        Set<Node> affected = getAffectedNodes(
+                oldCFG, newCFG, oldNodes, changed);
+        DataflowResult<Node, Fact> result = newResult(newCFG);
+        for (Node node : newCFG) {
+            if (!affected.contains(node)) {
+                Node oldNode = oldNodes.get(node);
+                result.setInFact(node, previous.getInFact(oldNode));
+                result.setOutFact(node, previous.getOutFact(oldNode));
+            } else if (analysis.isForward() && newCFG.isEntry(node)) {
+                result.setOutFact(node, analysis.newBoundaryFact(newCFG));
+            } else if (!analysis.isForward() && newCFG.isExit(node)) {
+                result.setInFact(node, analysis.newBoundaryFact(newCFG));
+            } else {
+                result.setInFact(node, analysis.newInitialFact(newCFG));
+                result.setOutFact(node, analysis.newInitialFact(newCFG));
+            }
+        }
+        doSolve(newCFG, result, affected);
+        if (outOnly) {
+            result.discardInFacts(node -> computeInFact(newCFG, result, node));
+        }
         return result;
     }
 
+    /**
+     * Matches the nodes of newCFG to the nodes of oldCFG.
+     *
+     * @return the map from the nodes of newCFG to their matched nodes
+     * in oldCFG. The nodes without matched nodes are absent in the map.
+     */
+    private Map<Node, Node> matchNodes(CFG<Node> oldCFG, CFG<Node> newCFG) {
+        Map<Node, Node> oldNodes = Maps.newMap(newCFG.getNumberOfNodes());
+        for (Node node : newCFG) {
+            Node oldNode;
+            if (newCFG.isEntry(node)) {
+                oldNode = oldCFG.getEntry();
+            } else if (newCFG.isExit(node)) {
+                oldNode = oldCFG.getExit();
+            } else if (node instanceof Stmt stmt) {
+                List<Stmt> oldStmts = oldCFG.getIR().getStmts();
+                int index = stmt.getIndex();
+                oldNode = index < oldStmts.size() ?
+                        (Node) oldStmts.get(index) : null;
+            } else {
+                // other kinds of nodes are not rebuilt by the edit
+                oldNode = node;
+            }
+            if (oldNode != null && oldCFG.hasNode(oldNode)) {
+                oldNodes.put(node, oldNode);
+            }
+        }
+        return oldNodes;
+    }
+
+    /**
+     * @return the nodes in newCFG whose facts may be affected by the edit.
+     */
+    private Set<Node> getAffectedNodes(
+            CFG<Node> oldCFG, CFG<Node> newCFG,
+            Map<Node, Node> oldNodes, Set<Node> changed) {
+        Set<Node> affected = Sets.newHybridSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        for (Node node : newCFG) {
+            Node oldNode = oldNodes.get(node);
+            if (changed.contains(node) || oldNode == null
+                    || !isSameEdges(oldCFG.getInEdgesOf(oldNode),
+                    newCFG.getInEdgesOf(node), oldNodes)
+                    || !isSameEdges(oldCFG.getOutEdgesOf(oldNode),
+                    newCFG.getOutEdgesOf(node), oldNodes)) {
+                affected.add(node);
+                stack.push(node);
+            }
+        }
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            Set<Node> nexts = analysis.isForward() ?
+                    newCFG.getSuccsOf(node) : newCFG.getPredsOf(node);
+            for (Node next : nexts) {
+                if (affected.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return true if each of newEdges has a counterpart in oldEdges,
+     * which has the same kind (and case value) and connects the matched
+     * old nodes, and vice versa.
+     */
+    private static <Node> boolean isSameEdges(
+            Set<Edge<Node>> oldEdges, Set<Edge<Node>> newEdges,
+            Map<Node, Node> oldNodes) {
+        if (oldEdges.size() != newEdges.size()) {
+            return false;
+        }
+        for (Edge<Node> edge : newEdges) {
+            Node oldSource = oldNodes.get(edge.getSource());
+            Node oldTarget = oldNodes.get(edge.getTarget());
+            boolean found = false;
+            for (Edge<Node> oldEdge : oldEdges) {
+                if (oldEdge.getKind() == edge.getKind()
+                        && (!edge.isSwitchCase()
+                        || oldEdge.getCaseValue() == edge.getCaseValue())
+                        && Objects.equals(oldEdge.getSource(), oldSource)
+                        && Objects.equals(oldEdge.getTarget(), oldTarget)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +295,48 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result for given CFG.
+     */
+    private DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (!arrayResult) {
+            return new DataflowResult<>();
+        }
+        // the entry and exit nodes are not in the IR, thus they
+        // are put after the statements
+        int n = cfg.getIR().getStmts().size();
+        return new ArrayDataflowResult<>(n + 2, node -> {
+            if (cfg.isEntry(node)) {
+                return n;
+            } else if (cfg.isExit(node)) {
+                return n + 1;
+            } else {
+                return ((Stmt) node).getIndex();
+            }
+        });
+    }
+
+    /**
+     * Computes the IN fact of given node from the OUT facts in the result,
+     * which has reached the fixed point.
+     */
+    private Fact computeInFact(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               Node node) {
+        if (analysis.isForward()) {
+            Fact in = analysis.newInitialFact(cfg);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            return in;
+        } else if (cfg.isExit(node)) {
+            return analysis.newBoundaryFact(cfg);
+        } else {
+            Fact in = analysis.newInitialFact(cfg);
+            analysis.transferNode(node, in, result.getOutFact(node));
+            return in;
+        }
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
 
@@ -83,8 +344,8 @@ public abstract class Solver<Node, Fact> {
 
         for(Node node : cfg){
             if(!cfg.isEntry(node)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
     }
@@ -95,8 +356,8 @@ public abstract class Solver<Node, Fact> {
         result.setInFact(cfg.getExit(), analysis.newBoundaryFact(cfg));
         for(Node node : cfg){
             if(!cfg.isExit(node)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
     }
@@ -105,14 +366,36 @@ public abstract class Solver<Node, Fact> {
      * Solves the data-flow problem for given CFG.
      */
     private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        if (analysis.isForward()) {
-            doSolveForward(cfg, result);
-        } else {
-            doSolveBackward(cfg, result);
+        doSolve(cfg, result, cfg.getNodes());
+    }
+
+    /**
+     * Solves the data-flow problem for given CFG, starting from given nodes.
+     */
+    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                         Set<Node> nodes) {
+        int iterations = analysis.isForward() ?
+                doSolveForward(cfg, result, nodes) :
+                doSolveBackward(cfg, result, nodes);
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} solved {} in {} iterations",
+                    getClass().getSimpleName(), cfg.getMethod(), iterations);
         }
     }
 
-    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    /**
+     * @param nodes the nodes in the initial work list. The entry node
+     *              is not visited even if it is given.
+     * @return the number of iterations, i.e., the times of node transfer.
+     */
+    protected abstract int doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                          Set<Node> nodes);
 
-    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    /**
+     * @param nodes the nodes in the initial work list. The exit node
+     *              is not visited even if it is given.
+     * @return the number of iterations, i.e., the times of node transfer.
+     */
+    protected abstract int doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                           Set<Node> nodes);
 }
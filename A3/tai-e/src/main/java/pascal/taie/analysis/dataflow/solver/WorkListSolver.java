@@ -38,22 +38,25 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     }
 
     @Override
-    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected int doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                 Set<Node> nodes) {
         //TODO - finish me
 
         Queue<Node> q = new LinkedList<>();
         Set<Node> vis = new HashSet<>();
 
-        for(Node node : cfg){
+        for(Node node : nodes){
             if(!cfg.isEntry(node)){
                 q.add(node);
                 vis.add(node);
             }
         }
 
+        int iterations = 0;
         while(!q.isEmpty()){
             Node cur = q.poll();
             vis.remove(cur);
+            ++iterations;
 
             Fact in = result.getInFact(cur);
             Fact out = result.getOutFact(cur);
@@ -70,30 +73,34 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
                 }
             }
         }
+        return iterations;
     }
 
     @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected int doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  Set<Node> nodes) {
         //TODO - finish me
 
         Queue<Node> q = new LinkedList<>();
         Set<Node> vis = new HashSet<>();
 
-        for(Node node : cfg){
+        for(Node node : nodes){
             if(!cfg.isExit(node)){
                 q.add(node);
                 vis.add(node);
             }
         }
 
+        int iterations = 0;
         while(!q.isEmpty()){
             Node cur = q.poll();
             vis.remove(cur);
+            ++iterations;
 
             Fact in = result.getInFact(cur);
             Fact out = result.getOutFact(cur);
             for(Node succ : cfg.getSuccsOf(cur)){
-                analysis.meetInto(out, result.getInFact(succ));
+                analysis.meetInto(result.getInFact(succ), out);
             }
             boolean res = analysis.transferNode(cur, in, out);
             if(res){
@@ -105,5 +112,6 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
                 }
             }
         }
+        return iterations;
     }
 }
@@ -0,0 +1,143 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A view of a CFG which consists of a subset of its edges, e.g.,
+ * the edges that are feasible under some facts. The nodes of the view
+ * are the entry, the exit, and the nodes connected by the edges.
+ *
+ * @param <N> type of CFG nodes.
+ */
+public class PrunedCFG<N> implements CFG<N> {
+
+    private final CFG<N> cfg;
+
+    private final Set<N> nodes = Sets.newHybridOrderedSet();
+
+    private final MultiMap<N, Edge<N>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<N, Edge<N>> outEdges = Maps.newMultiMap();
+
+    private final MultiMap<N, N> preds = Maps.newMultiMap();
+
+    private final MultiMap<N, N> succs = Maps.newMultiMap();
+
+    /**
+     * @param cfg   the CFG to be pruned
+     * @param edges the edges of cfg which are kept in the view
+     */
+    public PrunedCFG(CFG<N> cfg, Set<Edge<N>> edges) {
+        this.cfg = cfg;
+        for (Edge<N> edge : edges) {
+            N source = edge.getSource();
+            N target = edge.getTarget();
+            inEdges.put(target, edge);
+            outEdges.put(source, edge);
+            preds.put(target, source);
+            succs.put(source, target);
+        }
+        // keep the nodes in the order of the original CFG
+        for (N node : cfg) {
+            if (cfg.isEntry(node) || cfg.isExit(node)
+                    || inEdges.containsKey(node) || outEdges.containsKey(node)) {
+                nodes.add(node);
+            }
+        }
+    }
+
+    @Override
+    public IR getIR() {
+        return cfg.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return cfg.getMethod();
+    }
+
+    @Override
+    public N getEntry() {
+        return cfg.getEntry();
+    }
+
+    @Override
+    public N getExit() {
+        return cfg.getExit();
+    }
+
+    @Override
+    public boolean isEntry(N node) {
+        return cfg.isEntry(node);
+    }
+
+    @Override
+    public boolean isExit(N node) {
+        return cfg.isExit(node);
+    }
+
+    @Override
+    public boolean hasNode(N node) {
+        return nodes.contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(N source, N target) {
+        return succs.get(source).contains(target);
+    }
+
+    @Override
+    public Set<N> getPredsOf(N node) {
+        return Collections.unmodifiableSet(preds.get(node));
+    }
+
+    @Override
+    public Set<N> getSuccsOf(N node) {
+        return Collections.unmodifiableSet(succs.get(node));
+    }
+
+    @Override
+    public Set<Edge<N>> getInEdgesOf(N node) {
+        return Collections.unmodifiableSet(inEdges.get(node));
+    }
+
+    @Override
+    public Set<Edge<N>> getOutEdgesOf(N node) {
+        return Collections.unmodifiableSet(outEdges.get(node));
+    }
+
+    @Override
+    public Set<N> getNodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+}
@@ -24,14 +24,50 @@ package pascal.taie.analysis.dataflow.analysis;
 
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
 
 public class DeadCodeTest {
 
     void testDCD(String inputClass) {
+        testDCD(inputClass, null, null);
+    }
+
+    /**
+     * @param options       options for deadcode, or null
+     * @param solverOptions options added to both livevar and constprop,
+     *                      or null
+     */
+    void testDCD(String inputClass, String options, String solverOptions) {
+        List<String> opts = new ArrayList<>();
+        if (options != null) {
+            opts.add(options);
+        }
+        String solver = solverOptions != null ? ";" + solverOptions : "";
+        Collections.addAll(opts,
+                "-a", "livevar=strongly:false" + solver,
+                "-a", "constprop=edge-refine:false" + solver);
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
-                DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+                DeadCodeDetection.ID, opts.toArray(new String[0]));
     }
 
     @Test
@@ -44,6 +80,67 @@ public class DeadCodeTest {
         testDCD("UnreachableIfBranch");
     }
 
+    @Test
+    public void testConditionalLiveness() {
+        IR ir = buildBranchIR();
+        // a = 5 is only used by the unreachable branch
+        assertEquals(Set.of(ir.getStmt(2), ir.getStmt(4), ir.getStmt(5)),
+                detect(ir, "conditional-liveness", true));
+        assertEquals(Set.of(ir.getStmt(4), ir.getStmt(5)),
+                detect(ir, "conditional-liveness", false));
+    }
+
+    /**
+     * Detects dead code of given IR in fused mode,
+     * which does not need the results of other analyses.
+     */
+    private static Set<Stmt> detect(IR ir, Object... options) {
+        List<Object> opts = new ArrayList<>(List.of("fused", true));
+        Collections.addAll(opts, options);
+        return new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, opts.toArray())).analyze(ir);
+    }
+
+    /**
+     * Builds the IR of:
+     * <pre>
+     * x = 10; y = 1; a = 5;
+     * z = x > y ? 100 : a;
+     * return z;
+     * </pre>
+     * where the condition is constant, thus the else-branch is unreachable.
+     */
+    private static IR buildBranchIR() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        Var a = new Var(null, "a", PrimitiveType.INT, 2);
+        Var z = new Var(null, "z", PrimitiveType.INT, 3);
+        If ifStmt = new If(new ConditionExp(ConditionExp.Op.GT, x, y));
+        Goto gotoStmt = new Goto();
+        Stmt then = new AssignLiteral(z, IntLiteral.get(100));
+        Stmt ret = new Return(z);
+        ifStmt.setTarget(then);
+        gotoStmt.setTarget(ret);
+        List<Stmt> stmts = List.of(
+                new AssignLiteral(x, IntLiteral.get(10)),
+                new AssignLiteral(y, IntLiteral.get(1)),
+                new AssignLiteral(a, IntLiteral.get(5)),
+                ifStmt,
+                new Copy(z, a),
+                gotoStmt,
+                then,
+                ret);
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(null, null, List.of(), Set.of(z),
+                List.of(x, y, a, z), stmts, List.of());
+        CFGBuilder cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false));
+        ir.storeResult(CFGBuilder.ID, cfgBuilder.analyze(ir));
+        return ir;
+    }
+
     @Test
     public void testUnreachableSwitchBranch() {
         testDCD("UnreachableSwitchBranch");
@@ -59,6 +156,31 @@ public class DeadCodeTest {
         testDCD("Loops");
     }
 
+    @Test
+    public void testLoopsPriorityWorkList() {
+        testDCD("Loops", null, "worklist:rpo");
+    }
+
+    @Test
+    public void testLoopsArrayResult() {
+        testDCD("Loops", null, "result:array;out-only:true");
+    }
+
+    @Test
+    public void testLoopsFused() {
+        testDCD("Loops", "fused:true", null);
+    }
+
+    @Test
+    public void testLoopsParallel() {
+        testDCD("Loops", "threads:4", null);
+    }
+
+    @Test
+    public void testLoopsFusedParallel() {
+        testDCD("Loops", "fused:true;threads:4", null);
+    }
+
     @Test
     public void otherTests(){
         testDCD("OtherTests");
@@ -23,8 +23,11 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
 import pascal.taie.ir.stmt.Stmt;
@@ -37,8 +40,36 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Representation of the facts, i.e., "map", "dense" for
+     * {@link DenseCPFact}, or "persistent" for {@link PersistentCPFact}.
+     */
+    private final String factKind;
+
+    /**
+     * Whether this analysis propagates values along def-use chains,
+     * see {@link SparseCPSolver}.
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+        String fact = getOptions().getString("fact");
+        factKind = fact != null ? fact : "map";
+        if (!factKind.equals("map") && !factKind.equals("dense")
+                && !factKind.equals("persistent")) {
+            throw new IllegalArgumentException("Unknown fact representation: " + fact);
+        }
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return SparseCPSolver.solve(this, cfg);
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -50,7 +81,7 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
 
-        CPFact res = new CPFact();
+        CPFact res = newInitialFact();
         for(Var arg : cfg.getIR().getParams()){
             if(canHoldInt(arg)) {
                 res.update(arg, Value.getNAC());
@@ -64,13 +95,21 @@ public class ConstantPropagation extends
     public CPFact newInitialFact() {
         // TODO - finish me
 
-        return new CPFact();
+        return switch (factKind) {
+            case "dense" -> new DenseCPFact();
+            case "persistent" -> new PersistentCPFact();
+            default -> new CPFact();
+        };
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         //TODO - finish me
 
+        if (fact instanceof DenseCPFact f && target instanceof DenseCPFact t) {
+            t.meet(f);
+            return;
+        }
         fact.entries().forEach(entry -> {
             Var key = entry.getKey();
             Value v = entry.getValue();
@@ -107,11 +146,7 @@ public class ConstantPropagation extends
 
         //NOTE: 需要使用 canHoldInt 来过滤 stmt 中的 Var
 
-        boolean change = false;
-
-        for(Var key : in.keySet()){
-            change |= out.update(key, in.get(key));
-        }
+        boolean change = out.copyFrom(in);
 
         if(stmt instanceof DefinitionStmt<?, ?> def){
             LValue left = def.getLValue();
@@ -165,10 +200,16 @@ public class ConstantPropagation extends
             return Value.getNAC();
         }
 
-        String op = ((BinaryExp) exp).getOperator().toString();
-        Value valX = in.get(biExp.getOperand1());
-        Value valY = in.get(biExp.getOperand2());
+        return evaluate(biExp.getOperator(), in.get(biExp.getOperand1()),
+                in.get(biExp.getOperand2()));
+    }
 
+    /**
+     * Evaluates the {@link Value} of a binary expression whose operands
+     * have given values.
+     */
+    public static Value evaluate(BinaryExp.Op operator, Value valX, Value valY) {
+        String op = operator.toString();
         if((op.equals("/") || op.equals("%")) && (valY.isConstant() && valY.getConstant() == 0)){
             return Value.getUndef();
         }
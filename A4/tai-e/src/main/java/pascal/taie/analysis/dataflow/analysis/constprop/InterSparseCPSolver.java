@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse solver of inter-procedural constant propagation.
+ * <p>
+ * The values of parameters come from the arguments at the call sites,
+ * and the values of the variables receiving the results of invocations
+ * come from the returned variables of the callees, following the edges
+ * of the ICFG.
+ */
+public class InterSparseCPSolver extends SparseCPSolver {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    /**
+     * The definitions of the arguments which reach each call site.
+     */
+    private final Map<Stmt, Def[][]> argDefs = Maps.newMap();
+
+    /**
+     * The definitions of the returned variables which reach
+     * the exit of each method.
+     */
+    private final Map<JMethod, Def[]> returnDefs = Maps.newMap();
+
+    private InterSparseCPSolver(ConstantPropagation cp,
+                                ICFG<JMethod, Stmt> icfg) {
+        super(cp);
+        this.icfg = icfg;
+    }
+
+    /**
+     * Solves inter-procedural constant propagation for given ICFG.
+     */
+    public static DataflowResult<Stmt, CPFact> solve(
+            ConstantPropagation cp, ICFG<JMethod, Stmt> icfg) {
+        InterSparseCPSolver solver = new InterSparseCPSolver(cp, icfg);
+        Map<JMethod, MethodDefs> methodDefs = Maps.newMap();
+        for (Stmt node : icfg) {
+            JMethod method = icfg.getContainingMethodOf(node);
+            if (!methodDefs.containsKey(method)) {
+                CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+                methodDefs.put(method, solver.buildDefs(cfg));
+            }
+        }
+        methodDefs.values().forEach(solver::addCallOperands);
+        solver.argDefs.clear();
+        solver.returnDefs.clear();
+        solver.doSolve(methodDefs.values());
+        return new Result(node ->
+                methodDefs.get(icfg.getContainingMethodOf(node)));
+    }
+
+    @Override
+    boolean isCallSite(Stmt node) {
+        return node instanceof Invoke;
+    }
+
+    @Override
+    void collectOutgoingDefs(MethodDefs defs, BitSet[] reachIn) {
+        for (Stmt node : defs.cfg) {
+            if (node instanceof Invoke invoke) {
+                List<Var> args = invoke.getInvokeExp().getArgs();
+                Def[][] reaching = new Def[args.size()][];
+                for (int i = 0; i < args.size(); ++i) {
+                    reaching[i] = defs.getReachingDefs(reachIn, node, args.get(i));
+                }
+                argDefs.put(node, reaching);
+            }
+        }
+        Stmt exit = defs.cfg.getExit();
+        List<Def> reaching = new ArrayList<>();
+        for (Var retVar : defs.cfg.getIR().getReturnVars()) {
+            reaching.addAll(List.of(defs.getReachingDefs(reachIn, exit, retVar)));
+        }
+        returnDefs.put(defs.cfg.getMethod(), reaching.toArray(NO_DEFS));
+    }
+
+    /**
+     * Adds the operands of the parameters and the call sites
+     * of given method, i.e., the definitions of the arguments from
+     * the callers and the definitions of the returned variables
+     * from the callees.
+     */
+    private void addCallOperands(MethodDefs defs) {
+        Stmt entry = icfg.getEntryOf(defs.cfg.getMethod());
+        for (Def def : defs.defs) {
+            if (def.stmt == null) {
+                // entry methods without callers are analyzed
+                // from the boundary fact, so their parameters
+                // keep null operands
+                if (icfg.getInDegreeOf(entry) > 0) {
+                    def.operands = icfg.getInEdgesOf(entry)
+                            .stream()
+                            .map(edge -> argDefs.get(edge.getSource())[def.paramIndex])
+                            .toArray(Def[][]::new);
+                }
+            } else if (isCallSite(def.stmt)) {
+                def.operands = icfg.getCalleesOf(def.stmt)
+                        .stream()
+                        .map(returnDefs::get)
+                        .toArray(Def[][]::new);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Summary of a method for constant propagation, which gives the return
+ * value of the method, and the values that the method and its callees
+ * may store into static fields, in terms of the parameters of the method.
+ */
+public class MethodSummary {
+
+    /**
+     * The summary of a method which has not been analyzed yet.
+     */
+    private static final MethodSummary EMPTY = new MethodSummary(
+            SymbolicValue.getUndef(), Map.of());
+
+    private final SymbolicValue returnValue;
+
+    private final Map<FieldRef, SymbolicValue> staticStores;
+
+    MethodSummary(SymbolicValue returnValue,
+                  Map<FieldRef, SymbolicValue> staticStores) {
+        this.returnValue = returnValue;
+        this.staticStores = Collections.unmodifiableMap(staticStores);
+    }
+
+    static MethodSummary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return the meet of the values of the returned variables,
+     * UNDEF if the method does not return int values.
+     */
+    public SymbolicValue getReturnValue() {
+        return returnValue;
+    }
+
+    /**
+     * @return the meet of the values stored into each static field
+     * by the method and its callees, keyed by the referenced fields.
+     * The fields which are not stored are absent.
+     */
+    public Map<FieldRef, SymbolicValue> getStaticStores() {
+        return staticStores;
+    }
+
+    /**
+     * Meets this summary with other summary.
+     */
+    MethodSummary meet(MethodSummary other) {
+        Map<FieldRef, SymbolicValue> stores = Maps.newMap(staticStores.size());
+        stores.putAll(staticStores);
+        other.staticStores.forEach((field, value) ->
+                stores.merge(field, value, SymbolicValue::meet));
+        return new MethodSummary(returnValue.meet(other.returnValue), stores);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MethodSummary that)) {
+            return false;
+        }
+        return returnValue.equals(that.returnValue)
+                && staticStores.equals(that.staticStores);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(returnValue, staticStores);
+    }
+
+    @Override
+    public String toString() {
+        return "MethodSummary{return=" + returnValue +
+                ", staticStores=" + staticStores + '}';
+    }
+}
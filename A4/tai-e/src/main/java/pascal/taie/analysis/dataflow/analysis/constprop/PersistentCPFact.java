@@ -0,0 +1,139 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.PersistentHashMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Represents data facts of constant propagation by persistent maps.
+ * <p>
+ * A fact holds an immutable {@link PersistentHashMap}, and each update
+ * replaces it by an updated map in O(log n) time. Thus, {@link #copy()}
+ * takes constant time, and the copies share their structures until they
+ * are updated. This class does not use the map inherited from
+ * {@link MapFact} and overrides all methods accessing it, thus an analysis
+ * should not mix PersistentCPFacts with other CPFacts.
+ */
+public class PersistentCPFact extends CPFact {
+
+    private PersistentHashMap<Var, Value> values;
+
+    public PersistentCPFact() {
+        this(PersistentHashMap.empty());
+    }
+
+    private PersistentCPFact(PersistentHashMap<Var, Value> values) {
+        this.values = values;
+    }
+
+    @Override
+    public Value get(Var key) {
+        Value value = values.get(key);
+        return value != null ? value : Value.getUndef();
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        PersistentHashMap<Var, Value> newValues = value.isUndef() ?
+                values.minus(key) : values.plus(key, value);
+        if (newValues == values) {
+            return false;
+        }
+        values = newValues;
+        return true;
+    }
+
+    @Override
+    public Value remove(Var key) {
+        Value old = values.get(key);
+        if (old != null) {
+            values = values.minus(key);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof PersistentCPFact other) {
+            if (values == other.values) {
+                return false;
+            }
+            if (values.isEmpty()) {
+                // shares the map of other fact
+                values = other.values;
+                return true;
+            }
+        }
+        boolean[] changed = { false };
+        fact.forEach((var, value) -> changed[0] |= update(var, value));
+        return changed[0];
+    }
+
+    @Override
+    public PersistentCPFact copy() {
+        return new PersistentCPFact(values);
+    }
+
+    @Override
+    public void clear() {
+        values = PersistentHashMap.empty();
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        return values.keySet();
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return values.entrySet().stream();
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        values.forEach(action);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentCPFact that)) {
+            return false;
+        }
+        return values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation.canHoldInt;
+
+/**
+ * Builds the {@link MethodSummary} of the methods in a call graph.
+ * <p>
+ * The summaries are built bottom-up over the strongly-connected components
+ * (SCCs) of the call graph, thus when a method is summarized, the summaries
+ * of its callees in other SCCs are complete, and they are applied at its
+ * call sites. The methods in a recursive SCC start from empty summaries,
+ * and they are summarized again until their summaries are stable.
+ * <p>
+ * A method is summarized by constant propagation over its CFG, where
+ * the values are {@link SymbolicValue}s, and each int parameter holds
+ * the symbolic value of itself at the entry of the method.
+ */
+public class SummaryBuilder {
+
+    private SummaryBuilder() {
+    }
+
+    /**
+     * @return the summaries of the methods in given call graph.
+     */
+    public static Map<JMethod, MethodSummary> build(
+            CallGraph<Invoke, JMethod> callGraph) {
+        return build(callGraph, JMethod::getIR);
+    }
+
+    static Map<JMethod, MethodSummary> build(
+            CallGraph<Invoke, JMethod> callGraph, Function<JMethod, IR> getIR) {
+        Map<JMethod, MethodSummary> summaries =
+                Maps.newMap(callGraph.getNumberOfMethods());
+        Function<Invoke, List<MethodSummary>> calleeSummaries = invoke ->
+                callGraph.getCalleesOf(invoke)
+                        .stream()
+                        .map(callee -> summaries.getOrDefault(
+                                callee, MethodSummary.empty()))
+                        .toList();
+        // components of call graph are given in reverse topological order,
+        // i.e., callees come before their callers
+        for (List<JMethod> scc : new SCC<>(callGraph).getComponents()) {
+            JMethod first = scc.get(0);
+            boolean recursive = scc.size() > 1 ||
+                    callGraph.getSuccsOf(first).contains(first);
+            boolean changed;
+            do {
+                changed = false;
+                for (JMethod method : scc) {
+                    MethodSummary old = summaries.getOrDefault(
+                            method, MethodSummary.empty());
+                    // meet with the old summary, so that the summaries
+                    // only go up in the lattice
+                    MethodSummary summary = old.meet(summarize(
+                            getIR.apply(method), calleeSummaries));
+                    summaries.put(method, summary);
+                    changed |= !summary.equals(old);
+                }
+            } while (recursive && changed);
+        }
+        return summaries;
+    }
+
+    /**
+     * Summarizes the method of given IR.
+     *
+     * @param calleeSummaries gives the summaries of the callees
+     *                        of each call site in the method
+     */
+    static MethodSummary summarize(
+            IR ir, Function<Invoke, ? extends Collection<MethodSummary>> calleeSummaries) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        Map<Stmt, SymbolicFact> inFacts = solve(ir, cfg, calleeSummaries);
+        SymbolicValue returnValue = SymbolicValue.getUndef();
+        Map<FieldRef, SymbolicValue> staticStores = Maps.newMap();
+        for (Stmt stmt : cfg) {
+            SymbolicFact in = inFacts.get(stmt);
+            if (stmt instanceof Return ret) {
+                Var var = ret.getValue();
+                if (var != null && canHoldInt(var)) {
+                    returnValue = returnValue.meet(in.get(var));
+                }
+            } else if (stmt instanceof StoreField store) {
+                if (store.isStatic() && canHoldInt(store.getRValue())) {
+                    staticStores.merge(store.getFieldRef(),
+                            in.get(store.getRValue()), SymbolicValue::meet);
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                List<SymbolicValue> args = getArgs(invoke, in);
+                for (MethodSummary callee : calleeSummaries.apply(invoke)) {
+                    callee.getStaticStores().forEach((field, value) ->
+                            staticStores.merge(field, value.substitute(args),
+                                    SymbolicValue::meet));
+                }
+            }
+        }
+        // the stores in unreachable code store UNDEF
+        staticStores.values().removeIf(SymbolicValue::isUndef);
+        return new MethodSummary(returnValue, staticStores);
+    }
+
+    /**
+     * Solves the symbolic constant propagation on given CFG.
+     *
+     * @return the IN facts of the nodes.
+     */
+    private static Map<Stmt, SymbolicFact> solve(
+            IR ir, CFG<Stmt> cfg,
+            Function<Invoke, ? extends Collection<MethodSummary>> calleeSummaries) {
+        Map<Stmt, SymbolicFact> inFacts = Maps.newMap(cfg.getNumberOfNodes());
+        Map<Stmt, SymbolicFact> outFacts = Maps.newMap(cfg.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            inFacts.put(node, new SymbolicFact());
+            outFacts.put(node, new SymbolicFact());
+        }
+        SymbolicFact boundary = outFacts.get(cfg.getEntry());
+        List<Var> params = ir.getParams();
+        for (int i = 0; i < params.size(); ++i) {
+            if (canHoldInt(params.get(i))) {
+                boundary.update(params.get(i), SymbolicValue.makeParam(i));
+            }
+        }
+        Deque<Stmt> workList = new ArrayDeque<>(cfg.getNumberOfNodes());
+        Set<Stmt> inWorkList = Sets.newSet(cfg.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            if (!cfg.isEntry(node)) {
+                workList.add(node);
+                inWorkList.add(node);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            inWorkList.remove(node);
+            SymbolicFact in = inFacts.get(node);
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                in.meet(outFacts.get(pred));
+            }
+            if (transfer(node, in, outFacts.get(node), calleeSummaries)) {
+                for (Stmt succ : cfg.getSuccsOf(node)) {
+                    if (!cfg.isEntry(succ) && inWorkList.add(succ)) {
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+        return inFacts;
+    }
+
+    private static boolean transfer(
+            Stmt stmt, SymbolicFact in, SymbolicFact out,
+            Function<Invoke, ? extends Collection<MethodSummary>> calleeSummaries) {
+        boolean changed = out.copyFrom(in);
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var x && canHoldInt(x)) {
+            SymbolicValue value;
+            if (stmt instanceof Invoke invoke) {
+                List<SymbolicValue> args = getArgs(invoke, in);
+                value = SymbolicValue.getUndef();
+                for (MethodSummary callee : calleeSummaries.apply(invoke)) {
+                    value = value.meet(callee.getReturnValue().substitute(args));
+                }
+            } else {
+                value = evaluate(def.getRValue(), in);
+            }
+            changed |= out.update(x, value);
+        }
+        return changed;
+    }
+
+    /**
+     * Evaluates the symbolic value of given expression like
+     * {@link ConstantPropagation#evaluate(Exp, CPFact)}.
+     */
+    private static SymbolicValue evaluate(Exp exp, SymbolicFact in) {
+        if (exp instanceof Var var) {
+            return in.get(var);
+        } else if (exp instanceof IntLiteral literal) {
+            return SymbolicValue.makeConstant(literal.getValue());
+        } else if (exp instanceof BinaryExp binary) {
+            return SymbolicValue.makeBinary(binary.getOperator(),
+                    in.get(binary.getOperand1()), in.get(binary.getOperand2()));
+        }
+        return SymbolicValue.getNAC();
+    }
+
+    private static List<SymbolicValue> getArgs(Invoke invoke, SymbolicFact in) {
+        return invoke.getInvokeExp()
+                .getArgs()
+                .stream()
+                .map(in::get)
+                .toList();
+    }
+
+    /**
+     * Data-flow facts of the symbolic constant propagation. Like
+     * {@link CPFact}, the absence of a variable represents UNDEF.
+     */
+    private static class SymbolicFact extends MapFact<Var, SymbolicValue> {
+
+        private SymbolicFact() {
+            super(Collections.emptyMap());
+        }
+
+        @Override
+        public SymbolicValue get(Var key) {
+            return map.getOrDefault(key, SymbolicValue.getUndef());
+        }
+
+        @Override
+        public boolean update(Var key, SymbolicValue value) {
+            if (value.isUndef()) {
+                return remove(key) != null;
+            }
+            return super.update(key, value);
+        }
+
+        /**
+         * Meets given fact into this fact.
+         */
+        private void meet(SymbolicFact fact) {
+            fact.forEach((var, value) -> update(var, get(var).meet(value)));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents symbolic lattice values in constant propagation, which
+ * describe the values of a method in terms of its parameters.
+ * Like {@link Value}, a symbolic value can be UNDEF, a constant, or NAC;
+ * in addition, it can be a parameter of the method, or a binary
+ * expression over two symbolic values.
+ * <p>
+ * The values which are not UNDEF or NAC are incomparable in the lattice,
+ * i.e., two different such values meet to NAC.
+ */
+public class SymbolicValue {
+
+    /**
+     * Maximum depth of binary expressions; the deeper expressions are NAC,
+     * so that the values in loops and recursion stay finite.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final SymbolicValue UNDEF = new SymbolicValue(
+            Kind.UNDEF, 0, null, null, null);
+
+    private static final SymbolicValue NAC = new SymbolicValue(
+            Kind.NAC, 0, null, null, null);
+
+    private final Kind kind;
+
+    /**
+     * The constant, or the index of the parameter.
+     */
+    private final int value;
+
+    private final BinaryExp.Op operator;
+
+    private final SymbolicValue operand1;
+
+    private final SymbolicValue operand2;
+
+    private final int depth;
+
+    private SymbolicValue(Kind kind, int value, BinaryExp.Op operator,
+                          SymbolicValue operand1, SymbolicValue operand2) {
+        this.kind = kind;
+        this.value = value;
+        this.operator = operator;
+        this.operand1 = operand1;
+        this.operand2 = operand2;
+        this.depth = kind == Kind.BINARY ?
+                Math.max(operand1.depth, operand2.depth) + 1 : 0;
+    }
+
+    /**
+     * @return the UNDEF.
+     */
+    public static SymbolicValue getUndef() {
+        return UNDEF;
+    }
+
+    /**
+     * @return the NAC.
+     */
+    public static SymbolicValue getNAC() {
+        return NAC;
+    }
+
+    /**
+     * Makes a constant value.
+     */
+    public static SymbolicValue makeConstant(int value) {
+        return new SymbolicValue(Kind.CONSTANT, value, null, null, null);
+    }
+
+    /**
+     * Makes the value of the index-th parameter.
+     */
+    public static SymbolicValue makeParam(int index) {
+        return new SymbolicValue(Kind.PARAM, index, null, null, null);
+    }
+
+    /**
+     * Converts given {@link Value} to symbolic value.
+     */
+    public static SymbolicValue of(Value value) {
+        if (value.isConstant()) {
+            return makeConstant(value.getConstant());
+        }
+        return value.isNAC() ? NAC : UNDEF;
+    }
+
+    /**
+     * Makes the value of a binary expression whose operands have given
+     * values. The constants are folded like
+     * {@link ConstantPropagation#evaluate(BinaryExp.Op, Value, Value)}.
+     */
+    public static SymbolicValue makeBinary(BinaryExp.Op operator,
+                                           SymbolicValue v1, SymbolicValue v2) {
+        if (isDivision(operator) && v2.isConstant() && v2.value == 0) {
+            return UNDEF;
+        }
+        if (v1.isNAC() || v2.isNAC()) {
+            return NAC;
+        }
+        if (v1.isUndef() || v2.isUndef()) {
+            return UNDEF;
+        }
+        if (v1.isConstant() && v2.isConstant()) {
+            return of(ConstantPropagation.evaluate(operator,
+                    Value.makeConstant(v1.value), Value.makeConstant(v2.value)));
+        }
+        SymbolicValue binary = new SymbolicValue(
+                Kind.BINARY, 0, operator, v1, v2);
+        return binary.depth <= MAX_DEPTH ? binary : NAC;
+    }
+
+    private static boolean isDivision(BinaryExp.Op operator) {
+        return operator == ArithmeticExp.Op.DIV || operator == ArithmeticExp.Op.REM;
+    }
+
+    public boolean isUndef() {
+        return kind == Kind.UNDEF;
+    }
+
+    public boolean isConstant() {
+        return kind == Kind.CONSTANT;
+    }
+
+    public boolean isNAC() {
+        return kind == Kind.NAC;
+    }
+
+    /**
+     * Meets this value with other value.
+     */
+    public SymbolicValue meet(SymbolicValue other) {
+        if (isUndef() || equals(other)) {
+            return other;
+        }
+        return other.isUndef() ? this : NAC;
+    }
+
+    /**
+     * Evaluates this value at a call site.
+     *
+     * @param args values of the arguments at the call site
+     * @return the resulting {@link Value}
+     */
+    public Value instantiate(List<Value> args) {
+        return switch (kind) {
+            case UNDEF -> Value.getUndef();
+            case NAC -> Value.getNAC();
+            case CONSTANT -> Value.makeConstant(value);
+            case PARAM -> value < args.size() ? args.get(value) : Value.getNAC();
+            case BINARY -> ConstantPropagation.evaluate(operator,
+                    operand1.instantiate(args), operand2.instantiate(args));
+        };
+    }
+
+    /**
+     * Substitutes the parameters in this value by the values of
+     * the arguments of a call site, which are given in terms of
+     * the parameters of the caller.
+     */
+    public SymbolicValue substitute(List<SymbolicValue> args) {
+        return switch (kind) {
+            case UNDEF, NAC, CONSTANT -> this;
+            case PARAM -> value < args.size() ? args.get(value) : NAC;
+            case BINARY -> makeBinary(operator,
+                    operand1.substitute(args), operand2.substitute(args));
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, value, operator, operand1, operand2);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (!(obj instanceof SymbolicValue)) {
+            return false;
+        }
+        SymbolicValue other = (SymbolicValue) obj;
+        return kind == other.kind
+                && value == other.value
+                && operator == other.operator
+                && Objects.equals(operand1, other.operand1)
+                && Objects.equals(operand2, other.operand2);
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case UNDEF -> "UNDEF";
+            case NAC -> "NAC";
+            case CONSTANT -> Integer.toString(value);
+            case PARAM -> "p" + value;
+            case BINARY -> "(" + operand1 + " " + operator + " " + operand2 + ")";
+        };
+    }
+
+    private enum Kind {
+        UNDEF, // undefined value
+        CONSTANT, // an integer constant
+        PARAM, // a parameter of the method
+        BINARY, // a binary expression
+        NAC, // not a constant
+    }
+}
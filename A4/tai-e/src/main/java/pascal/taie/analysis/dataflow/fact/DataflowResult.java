@@ -33,9 +33,24 @@ import java.util.Map;
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> inFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> outFacts;
+
+    public DataflowResult() {
+        this(true);
+    }
+
+    /**
+     * @param keepFacts whether this result keeps the facts in maps.
+     *                  The subclasses which keep (or compute) the facts
+     *                  by themselves pass false to avoid allocating the maps,
+     *                  and they must override all the accessors of facts.
+     */
+    protected DataflowResult(boolean keepFacts) {
+        inFacts = keepFacts ? new LinkedHashMap<>() : null;
+        outFacts = keepFacts ? new LinkedHashMap<>() : null;
+    }
 
     /**
      * @return the flowing-in fact of given node.
@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
@@ -117,12 +119,23 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected abstract Fact transferReturnEdge(ReturnEdge<Node> edge, Fact returnOut);
     // ----------------------------------------------------------------
 
+    /**
+     * Solves this analysis by {@link ParallelSolver} if option "parallel"
+     * is enabled, otherwise by {@link InterSolver}.
+     */
     @Override
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        DataflowResult<Node, Fact> result;
+        if (getOptions().getBooleanOrDefault("parallel", false)) {
+            CallGraph<?, Method> callGraph = World.get().getResult(CallGraphBuilder.ID);
+            result = new ParallelSolver<>(this, icfg, callGraph,
+                    Runtime.getRuntime().availableProcessors()).solve();
+        } else {
+            solver = new InterSolver<>(this, icfg);
+            result = solver.solve();
+        }
         finish();
         return result;
     }
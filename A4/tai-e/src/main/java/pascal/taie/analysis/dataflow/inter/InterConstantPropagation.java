@@ -22,12 +22,18 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.InterSparseCPSolver;
+import pascal.taie.analysis.dataflow.analysis.constprop.MethodSummary;
+import pascal.taie.analysis.dataflow.analysis.constprop.SummaryBuilder;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -39,9 +45,11 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
+import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation.canHoldInt;
 
@@ -55,9 +63,35 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * If option "summary" is enabled, the summaries of the methods, which
+     * give the values returned by the callees at each call site, see
+     * {@link #getSummarizedValue(Invoke, CPFact)}.
+     */
+    @Nullable
+    private Map<JMethod, MethodSummary> summaries;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
-        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "fact", getOptions().getString("fact")));
+    }
+
+    @Override
+    protected void initialize() {
+        if (getOptions().getBooleanOrDefault("summary", false)) {
+            summaries = SummaryBuilder.build(
+                    World.get().getResult(CallGraphBuilder.ID));
+        }
+    }
+
+    @Override
+    public Object analyze() {
+        if (getOptions().getBooleanOrDefault("sparse", false)) {
+            icfg = World.get().getResult(ICFGBuilder.ID);
+            return InterSparseCPSolver.solve(cp, icfg);
+        }
+        return super.analyze();
     }
 
     @Override
@@ -85,12 +119,7 @@ public class InterConstantPropagation extends
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
 
-        boolean change = false;
-
-        for(Var key : in.keySet()){
-            change |= out.update(key, in.get(key));
-        }
-        return change;
+        return out.copyFrom(in);
     }
 
     @Override
@@ -104,26 +133,32 @@ public class InterConstantPropagation extends
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
 
-        return out.copy();
+        // the solver only meets the edge fact into the IN fact of
+        // the target node, thus the OUT fact is passed on without copying
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
 
-        CPFact ret = out.copy();
         LValue L = edge.getSource().getDef().orElse(null);
         if(L instanceof Var x){
-            ret.remove(x);
+            Value value = getSummarizedValue((Invoke) edge.getSource(), out);
+            if(!out.get(x).equals(value)){
+                CPFact ret = out.copy();
+                ret.update(x, value);
+                return ret;
+            }
         }
-        return ret;
+        return out;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
         // TODO - finish me
 
-        CPFact ret = new CPFact();
+        CPFact ret = cp.newInitialFact();
 
         List<Var> formal = edge.getCallee().getIR().getParams();
         List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
@@ -142,14 +177,56 @@ public class InterConstantPropagation extends
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
         // TODO - finish me
 
-        CPFact ret = new CPFact();
+        CPFact ret = cp.newInitialFact();
         LValue L = edge.getCallSite().getDef().orElse(null);
 
-        if(L instanceof Var def && canHoldInt(def)){
+        if(L instanceof Var def && canHoldInt(def)
+                && !isSummarized((Invoke) edge.getCallSite())){
             for(Var x : edge.getReturnVars()){
                 ret.update(def, cp.meetValue(ret.get(def), returnOut.get(x)));
             }
         }
         return ret;
     }
+
+    /**
+     * @return true if the values returned by the callees of given call
+     * site are given by their summaries, i.e., all callees have summaries
+     * whose return values are not NAC. Otherwise, the values flow from
+     * the exits of the callees along return edges.
+     */
+    private boolean isSummarized(Invoke callSite) {
+        if (summaries == null) {
+            return false;
+        }
+        Set<JMethod> callees = icfg.getCalleesOf(callSite);
+        return !callees.isEmpty() && callees.stream().allMatch(callee -> {
+            MethodSummary summary = summaries.get(callee);
+            return summary != null && !summary.getReturnValue().isNAC();
+        });
+    }
+
+    /**
+     * @return the value of the result of given call site on the
+     * call-to-return edge, i.e., the meet of the summarized return values
+     * of the callees for the arguments in callSiteOut, if the call site
+     * is summarized, otherwise UNDEF.
+     */
+    private Value getSummarizedValue(Invoke callSite, CPFact callSiteOut) {
+        Var result = callSite.getResult();
+        if (result == null || !canHoldInt(result) || !isSummarized(callSite)) {
+            return Value.getUndef();
+        }
+        List<Value> args = callSite.getInvokeExp()
+                .getArgs()
+                .stream()
+                .map(callSiteOut::get)
+                .toList();
+        Value value = Value.getUndef();
+        for (JMethod callee : icfg.getCalleesOf(callSite)) {
+            value = cp.meetValue(value,
+                    summaries.get(callee).getReturnValue().instantiate(args));
+        }
+        return value;
+    }
 }
@@ -22,17 +22,14 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
-import pascal.taie.language.classes.JMethod;
 
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
-
 
 /**
  * Solver for inter-procedural data-flow analysis.
@@ -41,13 +38,15 @@ import java.util.stream.Collectors;
  */
 class InterSolver<Method, Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(InterSolver.class);
+
     private final InterDataflowAnalysis<Node, Fact> analysis;
 
     private final ICFG<Method, Node> icfg;
 
     private DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    private InterWorkList<Method, Node> workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
@@ -64,7 +63,7 @@ class InterSolver<Method, Node, Fact> {
 
     private void initialize() {
         // TODO - finish me
-        workList = new LinkedList<>();
+        workList = new InterWorkList<>(icfg);
 
         Set<Node> roots = new HashSet<>();
 
@@ -89,11 +88,9 @@ class InterSolver<Method, Node, Fact> {
         // TODO - finish me
 
         workList.addAll(icfg.getNodes());
-        Set<Node> has = new HashSet<>(icfg.getNodes());
 
         while(!workList.isEmpty()){
             Node cur = workList.poll();
-            has.remove(cur);
 
             Fact in = result.getInFact(cur);
             Fact out = result.getOutFact(cur);
@@ -103,15 +100,12 @@ class InterSolver<Method, Node, Fact> {
             }
             boolean change = analysis.transferNode(cur, in, out);
 //            System.out.println(cur + ": " + in + " -> " + out);
-            if(change){
-                for(Node succ : icfg.getSuccsOf(cur)){
-                    if(!has.contains(succ)){
-                        has.add(succ);
-                        workList.add(succ);
-                    }
-                }
+            if (change) {
+                workList.addAll(icfg.getSuccsOf(cur));
             }
         }
+        logger.info("Inter-procedural solver visited {} nodes ({} ICFG nodes)",
+                workList.getVisits(), workList.size());
 
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Work list of {@link InterSolver}. It is a bit set over dense numbers
+ * of the ICFG nodes, thus each node is pending at most once.
+ * <p>
+ * The nodes of each method are numbered contiguously, in reverse postorder
+ * of the intra-procedural edges from the method entry, and the work list
+ * always hands out the pending node with the smallest number. Thus, the
+ * solver usually finishes the pending nodes of a method before it moves
+ * to other methods, and visits a node after its predecessors in the
+ * same method.
+ */
+class InterWorkList<Method, Node> {
+
+    private final List<Node> nodes;
+
+    private final Map<Node, Integer> numbers;
+
+    private final BitSet bits;
+
+    /**
+     * All bits below this number are clear.
+     */
+    private int lowest;
+
+    /**
+     * Number of nodes that have been polled from this work list.
+     */
+    private int visits;
+
+    InterWorkList(ICFG<Method, Node> icfg) {
+        Map<Method, List<Node>> methodNodes = new LinkedHashMap<>();
+        int size = 0;
+        for (Node node : icfg) {
+            methodNodes.computeIfAbsent(icfg.getContainingMethodOf(node),
+                    m -> new ArrayList<>()).add(node);
+            ++size;
+        }
+        nodes = new ArrayList<>(size);
+        numbers = Maps.newMap(size);
+        methodNodes.forEach((method, mNodes) -> {
+            int offset = nodes.size();
+            addInReversePostorder(icfg, method, icfg.getEntryOf(method));
+            int end = nodes.size();
+            Collections.reverse(nodes.subList(offset, end));
+            for (int i = offset; i < end; ++i) {
+                numbers.put(nodes.get(i), i);
+            }
+            // nodes unreachable from the method entry come last
+            for (Node node : mNodes) {
+                if (!numbers.containsKey(node)) {
+                    numbers.put(node, nodes.size());
+                    nodes.add(node);
+                }
+            }
+        });
+        bits = new BitSet(size);
+        lowest = size;
+    }
+
+    /**
+     * Appends the nodes of given method, which are reachable from root
+     * via intra-procedural edges, to {@link #nodes} in postorder.
+     */
+    private void addInReversePostorder(
+            ICFG<Method, Node> icfg, Method method, Node root) {
+        // iterative depth-first traversal, so that large methods
+        // do not overflow the stack; numbers temporarily marks
+        // the visited nodes
+        Deque<Iterator<Node>> stack = new ArrayDeque<>();
+        Deque<Node> path = new ArrayDeque<>();
+        numbers.put(root, -1);
+        path.push(root);
+        stack.push(icfg.getSuccsOf(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Node> succs = stack.peek();
+            if (succs.hasNext()) {
+                Node succ = succs.next();
+                if (!numbers.containsKey(succ) &&
+                        method.equals(icfg.getContainingMethodOf(succ))) {
+                    numbers.put(succ, -1);
+                    path.push(succ);
+                    stack.push(icfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                stack.pop();
+                nodes.add(path.pop());
+            }
+        }
+    }
+
+    /**
+     * Adds a node to this work list, if it is not pending yet.
+     */
+    void add(Node node) {
+        int number = numbers.get(node);
+        bits.set(number);
+        if (number < lowest) {
+            lowest = number;
+        }
+    }
+
+    void addAll(Collection<Node> nodes) {
+        nodes.forEach(this::add);
+    }
+
+    boolean isEmpty() {
+        return bits.nextSetBit(lowest) < 0;
+    }
+
+    /**
+     * Removes and returns the pending node with the smallest number.
+     * This method must not be called when this work list is empty.
+     */
+    Node poll() {
+        int number = bits.nextSetBit(lowest);
+        bits.clear(number);
+        lowest = number + 1;
+        ++visits;
+        return nodes.get(number);
+    }
+
+    /**
+     * @return number of nodes that have been polled from this work list.
+     */
+    int getVisits() {
+        return visits;
+    }
+
+    /**
+     * @return number of ICFG nodes.
+     */
+    int size() {
+        return nodes.size();
+    }
+}
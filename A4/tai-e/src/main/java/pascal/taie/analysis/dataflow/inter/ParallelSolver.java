@@ -0,0 +1,256 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel solver for inter-procedural data-flow analysis.
+ * <p>
+ * The solver condenses the call graph into strongly-connected components
+ * (SCCs), and assigns each SCC a level, which is the length of the longest
+ * path from the roots of the condensed call graph to it. Thus, all call
+ * edges go from a lower level to a higher one, and the SCCs of the same
+ * level are independent of each other. The nodes of each SCC are solved
+ * by a work list of its own, and the SCCs are solved in waves, level by
+ * level, where the SCCs of the same wave run concurrently on a thread pool.
+ * A solving SCC only writes the facts of its own nodes, and only reads
+ * the facts of the other SCCs via call and return edges, whose SCCs are
+ * in other levels and thus not solving at the same time.
+ * <p>
+ * When the facts flowing along a call or return edge change, the target
+ * node is added to the work list of its SCC after the current wave.
+ * The waves are repeated until no SCC has pending nodes. As the analysis
+ * is monotone, the result is the same as the one of {@link InterSolver}.
+ * <p>
+ * The transfer functions of the analysis may be called concurrently,
+ * thus they must not modify shared state.
+ */
+class ParallelSolver<Method, Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolver.class);
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Graph<Method> callGraph;
+
+    private final int threads;
+
+    private DataflowResult<Node, Fact> result;
+
+    private Map<Method, Component<Node>> components;
+
+    /**
+     * The waves of SCCs, indexed by level.
+     */
+    private List<List<Component<Node>>> waves;
+
+    private final AtomicInteger visits = new AtomicInteger();
+
+    ParallelSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                   ICFG<Method, Node> icfg, Graph<Method> callGraph,
+                   int threads) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.callGraph = callGraph;
+        this.threads = threads;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        result = new DataflowResult<>();
+        initialize();
+        doSolve();
+        return result;
+    }
+
+    private void initialize() {
+        buildWaves();
+        Set<Node> entries = new HashSet<>();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            if (icfg.getInDegreeOf(entry) == 0) {
+                entries.add(entry);
+            }
+        });
+        for (Node node : icfg) {
+            if (entries.contains(node)) {
+                result.setInFact(node, analysis.newBoundaryFact(node));
+            } else {
+                result.setInFact(node, analysis.newInitialFact());
+            }
+            result.setOutFact(node, analysis.newInitialFact());
+            getComponentOf(node).pending.add(node);
+        }
+    }
+
+    private void buildWaves() {
+        components = Maps.newMap();
+        waves = new ArrayList<>();
+        List<List<Method>> sccs = new SCC<>(callGraph).getComponents();
+        // components of call graph are given in reverse topological order,
+        // thus the callers of a component are visited before it
+        for (int i = sccs.size() - 1; i >= 0; --i) {
+            List<Method> scc = sccs.get(i);
+            int level = 0;
+            for (Method method : scc) {
+                for (Method caller : callGraph.getPredsOf(method)) {
+                    Component<Node> callerComponent = components.get(caller);
+                    if (callerComponent != null) { // caller is not in scc
+                        level = Math.max(level, callerComponent.level + 1);
+                    }
+                }
+            }
+            Component<Node> component = new Component<>(level);
+            scc.forEach(method -> components.put(method, component));
+            if (level == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(level).add(component);
+        }
+    }
+
+    private Component<Node> getComponentOf(Node node) {
+        return components.get(icfg.getContainingMethodOf(node));
+    }
+
+    private void doSolve() {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int rounds = 0;
+        try {
+            boolean pending;
+            do {
+                ++rounds;
+                for (List<Component<Node>> wave : waves) {
+                    solveWave(wave, executor);
+                }
+                pending = components.values()
+                        .stream()
+                        .anyMatch(c -> !c.pending.isEmpty());
+            } while (pending);
+        } finally {
+            executor.shutdown();
+        }
+        logger.info("Parallel solver visited {} nodes ({} ICFG nodes)" +
+                        " in {} rounds over {} waves",
+                visits.get(), icfg.getNodes().size(), rounds, waves.size());
+    }
+
+    /**
+     * Solves the SCCs of a wave which have pending nodes, then adds
+     * the nodes affected by them to the work lists of other SCCs.
+     */
+    private void solveWave(List<Component<Node>> wave, ExecutorService executor) {
+        List<Component<Node>> pending = wave.stream()
+                .filter(c -> !c.pending.isEmpty())
+                .toList();
+        List<Node> affected = new ArrayList<>();
+        if (pending.size() == 1) {
+            // not worth a task
+            affected.addAll(solveComponent(pending.get(0)));
+        } else if (!pending.isEmpty()) {
+            List<Future<List<Node>>> futures = new ArrayList<>(pending.size());
+            for (Component<Node> component : pending) {
+                futures.add(executor.submit(() -> solveComponent(component)));
+            }
+            try {
+                for (Future<List<Node>> future : futures) {
+                    affected.addAll(future.get());
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new AnalysisException("Failed to solve ICFG in parallel", e);
+            }
+        }
+        affected.forEach(node -> getComponentOf(node).pending.add(node));
+    }
+
+    /**
+     * Solves the pending nodes of an SCC.
+     *
+     * @return the nodes of other SCCs which are affected by this SCC.
+     */
+    private List<Node> solveComponent(Component<Node> component) {
+        List<Node> affected = new ArrayList<>();
+        Set<Node> workList = component.pending;
+        int count = 0;
+        while (!workList.isEmpty()) {
+            Iterator<Node> iter = workList.iterator();
+            Node node = iter.next();
+            iter.remove();
+            ++count;
+            Fact in = result.getInFact(node);
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                analysis.meetInto(analysis.transferEdge(edge,
+                        result.getOutFact(edge.getSource())), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (Node succ : icfg.getSuccsOf(node)) {
+                    if (getComponentOf(succ) == component) {
+                        workList.add(succ);
+                    } else {
+                        affected.add(succ);
+                    }
+                }
+            }
+        }
+        visits.addAndGet(count);
+        return affected;
+    }
+
+    /**
+     * An SCC of the call graph, together with its pending nodes.
+     */
+    private static class Component<Node> {
+
+        private final int level;
+
+        private final Set<Node> pending = new LinkedHashSet<>();
+
+        private Component(int level) {
+            this.level = level;
+        }
+    }
+}
@@ -23,16 +23,66 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
 
 public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
     void test(String inputClass) {
+        test(inputClass, null);
+    }
+
+    /**
+     * @param options options added to the ones of inter-constprop, or null
+     */
+    void test(String inputClass, String options) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                "edge-refine:false;alias-aware:false" +
+                        (options != null ? ";" + options : ""),
+                "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -58,4 +108,214 @@ public class InterCPTest {
         test("MultiIntArgs");
     }
 
+    @Test
+    public void testFibonacciDenseFact() {
+        test("Fibonacci", "fact:dense");
+    }
+
+    @Test
+    public void testExamplePersistentFact() {
+        test("Example", "fact:persistent");
+    }
+
+    @Test
+    public void testMultiIntArgsSparse() {
+        test("MultiIntArgs", "sparse:true");
+    }
+
+    @Test
+    public void testExampleParallel() {
+        test("Example", "parallel:true");
+    }
+
+    @Test
+    public void testFibonacciParallel() {
+        test("Fibonacci", "parallel:true");
+    }
+
+    @Test
+    public void testMultiIntArgsParallel() {
+        // goo and foo are solved in the same wave
+        test("MultiIntArgs", "parallel:true");
+    }
+
+
+    private static final JClass C = new JClass(null, "C");
+
+    private static final FieldRef G = FieldRef.get(
+            C, "g", PrimitiveType.INT, true);
+
+    @Test
+    public void testSummaryPerCallSite() {
+        // int foo(int x, int y) { int t = x * y; C.g = y; return t; }
+        Var x = intVar("x", 0), y = intVar("y", 1), t = intVar("t", 2);
+        IR foo = buildIR(List.of(x, y),
+                new Binary(t, new ArithmeticExp(ArithmeticExp.Op.MUL, x, y)),
+                new StoreField(new StaticFieldAccess(G), y),
+                new Return(t));
+        MethodSummary summary = SummaryBuilder.summarize(foo, invoke -> List.of());
+        SymbolicValue ret = summary.getReturnValue();
+        assertEquals(Value.makeConstant(6), ret.instantiate(
+                List.of(Value.makeConstant(2), Value.makeConstant(3))));
+        assertEquals(Value.makeConstant(20), ret.instantiate(
+                List.of(Value.makeConstant(4), Value.makeConstant(5))));
+        assertEquals(Value.getNAC(), ret.instantiate(
+                List.of(Value.getNAC(), Value.makeConstant(3))));
+        assertEquals(Map.of(G, SymbolicValue.makeParam(1)),
+                summary.getStaticStores());
+
+        // int bar(int a) { int b = 2; int r = foo(a, b); int s = r + b; return s; }
+        Var a = intVar("a", 0), b = intVar("b", 1),
+                r = intVar("r", 2), s = intVar("s", 3);
+        IR bar = buildIR(List.of(a),
+                new AssignLiteral(b, IntLiteral.get(2)),
+                invoke(null, "foo", r, a, b),
+                new Binary(s, new ArithmeticExp(ArithmeticExp.Op.ADD, r, b)),
+                new Return(s));
+        MethodSummary barSummary = SummaryBuilder.summarize(
+                bar, invoke -> List.of(summary));
+        assertEquals(Value.makeConstant(12), barSummary.getReturnValue()
+                .instantiate(List.of(Value.makeConstant(5))));
+        assertEquals(Map.of(G, SymbolicValue.makeConstant(2)),
+                barSummary.getStaticStores());
+    }
+
+    @Test
+    public void testSummaryOfRecursion() {
+        JMethod down = intMethod("down");
+        JMethod up = intMethod("up");
+        JMethod main = intMethod("main");
+        Map<JMethod, IR> irs = Maps.newMap();
+        // int down(int n) { if (n > 0) { int r = down(n - 1); return r; } return 0; }
+        irs.put(down, buildRecursiveIR(down, false));
+        // int up(int n) { if (n > 0) { int r = up(n - 1); return r + 1; } return 0; }
+        irs.put(up, buildRecursiveIR(up, true));
+        // int main(int n) { int a = 7; int b = down(a); return b; }
+        Var n = intVar("n", 0), a = intVar("a", 1), b = intVar("b", 2);
+        Invoke callDown = invoke(main, "down", b, a);
+        irs.put(main, buildIR(List.of(n),
+                new AssignLiteral(a, IntLiteral.get(7)),
+                callDown,
+                new Return(b)));
+        World world = new World();
+        world.setIRBuilder(new IRBuilder() {
+            @Override
+            public IR buildIR(JMethod method) {
+                return irs.get(method);
+            }
+
+            @Override
+            public void buildAll(ClassHierarchy hierarchy) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        World.set(world);
+        try {
+            DefaultCallGraph callGraph = new DefaultCallGraph();
+            callGraph.addEntryMethod(main);
+            for (JMethod method : List.of(main, down, up)) {
+                callGraph.addReachableMethod(method);
+            }
+            callGraph.addEdge(new Edge<>(CallKind.STATIC, callDown, down));
+            for (JMethod method : List.of(down, up)) {
+                method.getIR().forEach(stmt -> {
+                    if (stmt instanceof Invoke invoke) {
+                        callGraph.addEdge(new Edge<>(CallKind.STATIC, invoke, method));
+                    }
+                });
+            }
+            Map<JMethod, MethodSummary> summaries = SummaryBuilder.build(callGraph);
+            assertEquals(SymbolicValue.makeConstant(0),
+                    summaries.get(down).getReturnValue());
+            // the first round summarizes up() to 0, which is refined to NAC
+            assertEquals(SymbolicValue.getNAC(),
+                    summaries.get(up).getReturnValue());
+            assertEquals(SymbolicValue.makeConstant(0),
+                    summaries.get(main).getReturnValue());
+        } finally {
+            World.reset();
+        }
+    }
+
+    /**
+     * Builds the IR of:
+     * <pre>
+     * if (n > 0) { int r = m(n - 1); return inc ? r + 1 : r; }
+     * return 0;
+     * </pre>
+     * where m is given method.
+     */
+    private static IR buildRecursiveIR(JMethod method, boolean inc) {
+        Var n = intVar("n", 0), zero = intVar("zero", 1), one = intVar("one", 2),
+                m = intVar("m", 3), r = intVar("r", 4), s = intVar("s", 5);
+        Stmt then = new AssignLiteral(one, IntLiteral.get(1));
+        If ifStmt = new If(new ConditionExp(ConditionExp.Op.GT, n, zero));
+        ifStmt.setTarget(then);
+        List<Stmt> stmts = new ArrayList<>(List.of(
+                new AssignLiteral(zero, IntLiteral.get(0)),
+                ifStmt,
+                new Return(zero),
+                then,
+                new Binary(m, new ArithmeticExp(ArithmeticExp.Op.SUB, n, one)),
+                invoke(method, method.getName(), r, m)));
+        if (inc) {
+            stmts.add(new Binary(s, new ArithmeticExp(ArithmeticExp.Op.ADD, r, one)));
+            stmts.add(new Return(s));
+        } else {
+            stmts.add(new Return(r));
+        }
+        return buildIR(List.of(n), stmts.toArray(new Stmt[0]));
+    }
+
+    /**
+     * Builds the IR of given statements, whose variables are
+     * given parameters and the variables defined by the statements.
+     */
+    private static IR buildIR(List<Var> params, Stmt... stmts) {
+        List<Var> vars = new ArrayList<>(params);
+        Set<Var> returnVars = Sets.newSet();
+        for (int i = 0; i < stmts.length; ++i) {
+            stmts[i].setIndex(i);
+            if (stmts[i] instanceof DefinitionStmt<?, ?> def &&
+                    def.getLValue() instanceof Var var && !vars.contains(var)) {
+                vars.add(var);
+            } else if (stmts[i] instanceof Return ret) {
+                returnVars.add(ret.getValue());
+            }
+        }
+        IR ir = new DefaultIR(null, null, params, returnVars,
+                vars, List.of(stmts), List.of());
+        CFGBuilder cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false));
+        ir.storeResult(CFGBuilder.ID, cfgBuilder.analyze(ir));
+        return ir;
+    }
+
+    private static Var intVar(String name, int index) {
+        return new Var(null, name, PrimitiveType.INT, index);
+    }
+
+    /**
+     * @return static method int C.name(int).
+     */
+    private static JMethod intMethod(String name) {
+        return new JMethod(C, name, Set.of(Modifier.STATIC),
+                List.of(PrimitiveType.INT), PrimitiveType.INT, List.of(),
+                AnnotationHolder.emptyHolder(), null, null);
+    }
+
+    /**
+     * @return invocation result = C.name(args) in given container.
+     */
+    private static Invoke invoke(JMethod container, String name,
+                                 Var result, Var... args) {
+        List<Type> paramTypes = new ArrayList<>();
+        for (Var arg : args) {
+            paramTypes.add(arg.getType());
+        }
+        MethodRef ref = MethodRef.get(C, name, paramTypes,
+                PrimitiveType.INT, true);
+        return new Invoke(container, new InvokeStatic(ref, List.of(args)), result);
+    }
+
 }
@@ -30,12 +30,21 @@ import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Represents pointer flow graph in pointer analysis.
+ * <p>
+ * The pointers in a cycle of PFG can be merged into one of them, called
+ * representative, as they have the same points-to set at the fixed point.
+ * After merging, the edges of the merged pointers belong to
+ * their representative.
  */
 class PointerFlowGraph {
 
@@ -69,6 +78,16 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Map from a merged pointer to its representative.
+     */
+    private final Map<Pointer, Pointer> representatives = Maps.newMap();
+
+    /**
+     * Map from a representative to the pointers merged into it.
+     */
+    private final MultiMap<Pointer, Pointer> mergedPointers = Maps.newMultiMap();
+
     /**
      * Returns all pointers in this PFG.
      */
@@ -128,13 +147,110 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        Pointer sourceRep = getRepresentative(source);
+        Pointer targetRep = getRepresentative(target);
+        if (sourceRep == targetRep) {
+            // the edge is a self-loop or inside a merged cycle
+            return false;
+        }
+        return successors.put(sourceRep, targetRep);
     }
 
     /**
      * @return successors of given pointer in the PFG.
+     * If some pointers have been merged, the result may contain
+     * merged pointers, which should be resolved by
+     * {@link #getRepresentative(Pointer)}.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return successors.get(getRepresentative(pointer));
+    }
+
+    /**
+     * @return the representative of given pointer. If the pointer
+     * has not been merged, returns the pointer itself.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        if (representatives.isEmpty()) {
+            return pointer;
+        }
+        Pointer rep = representatives.get(pointer);
+        return rep != null ? rep : pointer;
+    }
+
+    /**
+     * @return the pointers that have been merged into given representative.
+     */
+    Set<Pointer> getMergedPointersOf(Pointer rep) {
+        return mergedPointers.get(rep);
+    }
+
+    /**
+     * @return the number of pointers that have been merged into
+     * other pointers.
+     */
+    int getNumberOfMergedPointers() {
+        return representatives.size();
+    }
+
+    /**
+     * Merges a representative pointer into another one. Afterwards,
+     * the pointer, and the pointers merged into it, are represented by rep.
+     */
+    void merge(Pointer pointer, Pointer rep) {
+        Set<Pointer> merged = mergedPointers.get(pointer);
+        for (Pointer p : merged) {
+            representatives.put(p, rep);
+        }
+        mergedPointers.putAll(rep, merged);
+        mergedPointers.removeAll(pointer);
+        representatives.put(pointer, rep);
+        mergedPointers.put(rep, pointer);
+        Set<Pointer> succs = successors.get(pointer);
+        if (!succs.isEmpty()) {
+            successors.putAll(rep, succs);
+            successors.removeAll(pointer);
+        }
+    }
+
+    /**
+     * Searches a path from target back to source, which forms a cycle
+     * with edge source -> target. The search is a depth-first search over
+     * the representatives reachable from target, and it stops as soon as
+     * source is reached.
+     *
+     * @return the representatives in the cycle, or an empty list if
+     * source is not reachable from target.
+     */
+    List<Pointer> findCycle(Pointer source, Pointer target) {
+        Pointer sourceRep = getRepresentative(source);
+        Pointer targetRep = getRepresentative(target);
+        if (sourceRep == targetRep) {
+            return List.of();
+        }
+        // map from a visited representative to its parent in the search
+        Map<Pointer, Pointer> parents = Maps.newMap();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        parents.put(targetRep, targetRep);
+        stack.push(targetRep);
+        while (!stack.isEmpty()) {
+            Pointer node = stack.pop();
+            for (Pointer succ : successors.get(node)) {
+                Pointer succRep = getRepresentative(succ);
+                if (!parents.containsKey(succRep)) {
+                    parents.put(succRep, node);
+                    if (succRep == sourceRep) {
+                        List<Pointer> cycle = new ArrayList<>();
+                        for (Pointer p = sourceRep; p != targetRep; p = parents.get(p)) {
+                            cycle.add(p);
+                        }
+                        cycle.add(targetRep);
+                        return cycle;
+                    }
+                    stack.push(succRep);
+                }
+            }
+        }
+        return List.of();
     }
 }
@@ -67,6 +67,14 @@ class PointsToSet implements Iterable<Obj> {
         return set.contains(obj);
     }
 
+    /**
+     * @return true if this points-to set contains all objects in given pts,
+     * otherwise false.
+     */
+    boolean containsAll(PointsToSet pts) {
+        return set.containsAll(pts.set);
+    }
+
     /**
      * @return whether this set if empty.
      */
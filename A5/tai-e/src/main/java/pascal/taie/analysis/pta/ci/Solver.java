@@ -29,8 +29,10 @@ import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.SolverMetrics;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.ReferenceLiteral;
 import pascal.taie.ir.exp.Var;
@@ -41,13 +43,18 @@ import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
+import java.util.ArrayList;
 import java.util.List;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    private final AnalysisOptions options;
+
     private final HeapModel heapModel;
 
     private DefaultCallGraph callGraph;
@@ -60,7 +67,20 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    /**
+     * Whether the cycles in PFG are detected and collapsed.
+     */
+    private boolean cycleDetection;
+
+    /**
+     * PFG edges which have triggered cycle detection.
+     */
+    private MultiMap<Pointer, Pointer> checkedEdges;
+
+    private SolverMetrics metrics;
+
+    Solver(AnalysisOptions options, HeapModel heapModel) {
+        this.options = options;
         this.heapModel = heapModel;
     }
 
@@ -68,8 +88,15 @@ class Solver {
      * Runs pointer analysis algorithm.
      */
     void solve() {
+        metrics = new SolverMetrics();
+        metrics.start();
         initialize();
         analyze();
+        metrics.stop();
+        if (cycleDetection) {
+            logger.info("#merged pointers: {}",
+                    pointerFlowGraph.getNumberOfMergedPointers());
+        }
     }
 
     /**
@@ -81,6 +108,10 @@ class Solver {
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
+        // option "pfg" enables lazy cycle detection, which merges
+        // the pointers in PFG cycles ("collapse")
+        cycleDetection = "collapse".equals(options.getString("pfg"));
+        checkedEdges = Maps.newMultiMap();
         // initialize main method
         JMethod main = World.get().getMainMethod();
         callGraph.addEntryMethod(main);
@@ -95,9 +126,11 @@ class Solver {
 
         if(!callGraph.contains((method))){
             callGraph.addReachableMethod(method);
+            metrics.enterPhase(SolverMetrics.Phase.ADD_REACHABLE);
             for(Stmt stmt : method.getIR().getStmts()){
                 stmt.accept(stmtProcessor);
             }
+            metrics.exitPhase();
         }
     }
 
@@ -141,7 +174,9 @@ class Solver {
         public Void visit(Invoke callSite) {
             if(callSite.isStatic()){
                 JMethod callee = resolveCallee(null, callSite);
-                callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), callSite, callee));
+                if(callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), callSite, callee))){
+                    metrics.addCallEdge();
+                }
                 pass(callSite, callee);
                 addReachable(callee);
             }
@@ -156,6 +191,7 @@ class Solver {
         // TODO - finish me
 
         if(pointerFlowGraph.addEdge(source, target)){
+            metrics.addPFGEdge();
             if(!source.getPointsToSet().isEmpty()){
                 workList.addEntry(target, source.getPointsToSet());
             }
@@ -170,31 +206,50 @@ class Solver {
 
         while(!workList.isEmpty()){
             WorkList.Entry entry = workList.pollEntry();
-            Pointer ptr = entry.pointer();
+            metrics.addWorkListEntries(1);
+            Pointer ptr = pointerFlowGraph.getRepresentative(entry.pointer());
             PointsToSet delta = propagate(ptr, entry.pointsToSet());
+            if(!delta.isEmpty()){
+                metrics.addPropagatedObjects(delta.size());
+                processPointer(ptr, delta);
+                for(Pointer merged : pointerFlowGraph.getMergedPointersOf(ptr)){
+                    processPointer(merged, delta);
+                }
+                if(cycleDetection){
+                    detectCycles(ptr);
+                }
+            }
+        }
+    }
 
-            if(ptr instanceof VarPtr varPtr){
-                Var x = varPtr.getVar();
-
-                for(Obj obj : delta){
-                    for(StoreField storeField : x.getStoreFields()){
-                        addPFGEdge(pointerFlowGraph.getVarPtr(storeField.getRValue()),
-                                   pointerFlowGraph.getInstanceField(obj, storeField.getFieldRef().resolve()));
-                    }
-                    for(LoadField loadField : x.getLoadFields()){
-                        addPFGEdge(pointerFlowGraph.getInstanceField(obj, loadField.getFieldRef().resolve()),
-                                   pointerFlowGraph.getVarPtr(loadField.getLValue()));
-                    }
-                    for(StoreArray storeArray : x.getStoreArrays()){
-                        addPFGEdge(pointerFlowGraph.getVarPtr(storeArray.getRValue()),
-                                   pointerFlowGraph.getArrayIndex(obj));
-                    }
-                    for(LoadArray loadArray : x.getLoadArrays()){
-                        addPFGEdge(pointerFlowGraph.getArrayIndex(obj),
-                                   pointerFlowGraph.getVarPtr(loadArray.getLValue()));
-                    }
-                    processCall(x, obj);
+    /**
+     * Processes the statements related to pointer
+     * when its points-to set changes.
+     */
+    private void processPointer(Pointer ptr, PointsToSet delta) {
+        if(ptr instanceof VarPtr varPtr){
+            Var x = varPtr.getVar();
+
+            for(Obj obj : delta){
+                for(StoreField storeField : x.getStoreFields()){
+                    addPFGEdge(pointerFlowGraph.getVarPtr(storeField.getRValue()),
+                               pointerFlowGraph.getInstanceField(obj, storeField.getFieldRef().resolve()));
+                }
+                for(LoadField loadField : x.getLoadFields()){
+                    addPFGEdge(pointerFlowGraph.getInstanceField(obj, loadField.getFieldRef().resolve()),
+                               pointerFlowGraph.getVarPtr(loadField.getLValue()));
+                }
+                for(StoreArray storeArray : x.getStoreArrays()){
+                    addPFGEdge(pointerFlowGraph.getVarPtr(storeArray.getRValue()),
+                               pointerFlowGraph.getArrayIndex(obj));
+                }
+                for(LoadArray loadArray : x.getLoadArrays()){
+                    addPFGEdge(pointerFlowGraph.getArrayIndex(obj),
+                               pointerFlowGraph.getVarPtr(loadArray.getLValue()));
                 }
+                metrics.enterPhase(SolverMetrics.Phase.PROCESS_CALL);
+                processCall(x, obj);
+                metrics.exitPhase();
             }
         }
     }
@@ -206,6 +261,7 @@ class Solver {
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
 
+        metrics.enterPhase(SolverMetrics.Phase.PROPAGATE);
         PointsToSet delta = new PointsToSet();
         PointsToSet has = pointer.getPointsToSet();
 
@@ -217,12 +273,105 @@ class Solver {
         }
         if(!delta.isEmpty()){
             for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)){
-                workList.addEntry(succ, delta);
+                Pointer succRep = pointerFlowGraph.getRepresentative(succ);
+                if(succRep != pointer){
+                    workList.addEntry(succRep, delta);
+                }
             }
         }
+        metrics.exitPhase();
         return delta;
     }
 
+    /**
+     * Lazy cycle detection. When delta is propagated from pointer, and
+     * pt(succ) already contains pt(pointer), the edge pointer -> succ is
+     * likely in a cycle, thus searches a path from succ back to pointer
+     * and collapses the cycle. Each edge triggers the search at most once.
+     */
+    private void detectCycles(Pointer pointer) {
+        PointsToSet pts = pointer.getPointsToSet();
+        List<Pointer> candidates = new ArrayList<>();
+        for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)){
+            Pointer succRep = pointerFlowGraph.getRepresentative(succ);
+            PointsToSet succPts = succRep.getPointsToSet();
+            // the sizes are compared first, as pt(succ) cannot contain
+            // a larger pt(pointer); the edge is recorded only when the
+            // detection fires, as pt(succ) may catch up with pt(pointer) later
+            if(succRep != pointer
+                    && succPts.size() >= pts.size()
+                    && succPts.containsAll(pts)
+                    && checkedEdges.put(pointer, succRep)){
+                candidates.add(succRep);
+            }
+        }
+        for(Pointer candidate : candidates){
+            // pointer may have been merged by the previous collapses
+            List<Pointer> cycle = pointerFlowGraph.findCycle(pointer, candidate);
+            if(!cycle.isEmpty()){
+                collapse(cycle);
+            }
+        }
+    }
+
+    /**
+     * Merges the pointers in a cycle into the pointer
+     * with the largest points-to set.
+     */
+    private void collapse(List<Pointer> cycle) {
+        Pointer rep = cycle.get(0);
+        for(Pointer pointer : cycle){
+            if(pointer.getPointsToSet().size() > rep.getPointsToSet().size()){
+                rep = pointer;
+            }
+        }
+        for(Pointer pointer : cycle){
+            if(pointer != rep){
+                mergePointer(pointer, rep);
+            }
+        }
+    }
+
+    /**
+     * Merges a representative pointer (and the pointers merged into it)
+     * into rep, after which they share the points-to set of rep.
+     */
+    private void mergePointer(Pointer pointer, Pointer rep) {
+        PointsToSet oldPts = pointer.getPointsToSet();
+        PointsToSet repPts = rep.getPointsToSet();
+        // objects of pointer flow to rep (and its successors)
+        if(!oldPts.isEmpty()){
+            workList.addEntry(rep, oldPts);
+        }
+        // objects of rep flow to the successors of pointer
+        for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)){
+            if(!repPts.isEmpty()){
+                workList.addEntry(succ, repPts);
+            }
+        }
+        PointsToSet diff = new PointsToSet();
+        for(Obj obj : repPts){
+            if(!oldPts.contains(obj)){
+                diff.addObject(obj);
+            }
+        }
+        List<Pointer> pointers = new ArrayList<>(
+                pointerFlowGraph.getMergedPointersOf(pointer));
+        pointers.add(pointer);
+        pointerFlowGraph.merge(pointer, rep);
+        metrics.addMergedPointers(pointers.size());
+        for(Pointer p : pointers){
+            p.setPointsToSet(repPts);
+        }
+        // the statements related to the merged pointers
+        // are processed with the objects they have not seen
+        if(!diff.isEmpty()){
+            for(Pointer p : pointers){
+                processPointer(p, diff);
+            }
+        }
+    }
+
     /**
      * Processes instance calls when points-to set of the receiver variable changes.
      *
@@ -238,6 +387,7 @@ class Solver {
             workList.addEntry(pointerFlowGraph.getVarPtr(callee.getIR().getThis()), new PointsToSet(recv));
 
             if(callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), callSite, callee))){
+                metrics.addCallEdge();
                 addReachable(callee);
                 pass(callSite, callee);
             }
@@ -272,6 +422,10 @@ class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    SolverMetrics getMetrics() {
+        return metrics;
+    }
+
     CIPTAResult getResult() {
         return new CIPTAResult(pointerFlowGraph, callGraph);
     }
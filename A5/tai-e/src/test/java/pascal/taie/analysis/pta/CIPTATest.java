@@ -22,9 +22,15 @@
 
 package pascal.taie.analysis.pta;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+
 public class CIPTATest {
 
     static final String DIR = "cipta";
@@ -64,6 +70,23 @@ public class CIPTATest {
         Tests.testCIPTA(DIR, "InstanceField");
     }
 
+    @Test
+    public void testInstanceFieldCollapsedCycles() {
+        Tests.testCIPTA(DIR, "InstanceField", "pfg:collapse");
+    }
+
+    @Test
+    public void testCycleCollapsed() throws IOException {
+        // the solver metrics tell whether the pointers in the cycle
+        // are merged, which is invisible in the points-to sets
+        File metrics = File.createTempFile("Cycle-cipta", "-metrics.json");
+        metrics.deleteOnExit();
+        Tests.testCIPTA(DIR, "Cycle", "pfg:collapse;metrics:" + metrics.getPath());
+        long merged = new ObjectMapper().readTree(metrics)
+                .get("mergedPointers").asLong();
+        assertTrue("pointers in PFG cycle are not merged", merged > 0);
+    }
+
     @Test
     public void testStaticField() {
         Tests.testCIPTA(DIR, "StaticField");
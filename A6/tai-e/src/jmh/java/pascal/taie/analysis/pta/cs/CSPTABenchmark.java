@@ -0,0 +1,85 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.Main;
+import pascal.taie.World;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks end-to-end context-sensitive pointer analysis
+ * on the test programs (src/test/resources/pta/cspta)
+ * with each context selector and each manager of context-sensitive
+ * elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4G"})
+public class CSPTABenchmark {
+
+    @Param({"ci", "1-call", "1-obj", "1-type", "2-call", "2-obj", "2-type"})
+    public String cs;
+
+    @Param({"TwoCall", "TwoObject", "TwoType"})
+    public String main;
+
+    /**
+     * Manager of context-sensitive elements, i.e., option "cs-manager".
+     */
+    @Param({"map", "array"})
+    public String manager;
+
+    /**
+     * Additional options of CSPTA, e.g., "pts:bitset;worklist:merge".
+     */
+    @Param({""})
+    public String options;
+
+    @Benchmark
+    public Object analyze() {
+        String ptaArgs = "cs:" + cs + ";implicit-entries:false;only-app:true" +
+                ";cs-manager:" + manager;
+        if (!options.isEmpty()) {
+            ptaArgs += ";" + options;
+        }
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/cspta", "-m", main,
+                "-a", CSPTA.ID + "=" + ptaArgs
+        });
+        return World.get().getResult(CSPTA.ID);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of points-to sets with different
+ * representations, on sets of random objects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointsToSetBenchmark {
+
+    /**
+     * Representation of the points-to sets, see option "pts" of CSPTA.
+     */
+    @Param({"hybrid", "bitset"})
+    public String pts;
+
+    /**
+     * Number of objects in each points-to set.
+     */
+    @Param({"8", "256", "8192"})
+    public int size;
+
+    /**
+     * Number of the objects that the points-to sets are selected from.
+     */
+    private static final int OBJECTS = 65536;
+
+    private final List<CSObj> objs = new ArrayList<>(OBJECTS);
+
+    private PointsToSetFactory ptsFactory;
+
+    private PointsToSet source;
+
+    private PointsToSet target;
+
+    @Setup(Level.Trial)
+    public void setUpObjects() {
+        ptsFactory = new PointsToSetFactory("bitset".equals(pts));
+        CSManager csManager = new MapBasedCSManager();
+        Context context = ListContext.make();
+        for (int i = 0; i < OBJECTS; ++i) {
+            objs.add(csManager.getCSObj(context,
+                    new MockObj("Benchmark", i, null)));
+        }
+        Random random = new Random(0);
+        source = makeSet(random);
+        target = makeSet(random);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTarget() {
+        // addAll() and addAllDiff() modify the target set
+        PointsToSet copy = ptsFactory.newPointsToSet();
+        copy.addAll(target);
+        target = copy;
+    }
+
+    private PointsToSet makeSet(Random random) {
+        PointsToSet set = ptsFactory.newPointsToSet();
+        while (set.size() < size) {
+            set.addObject(objs.get(random.nextInt(OBJECTS)));
+        }
+        return set;
+    }
+
+    @Benchmark
+    public boolean addAll() {
+        return target.addAll(source);
+    }
+
+    @Benchmark
+    public PointsToSet addAllDiff() {
+        return target.addAllDiff(source);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (CSObj obj : source) {
+            blackhole.consume(obj);
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        boolean result = false;
+        for (int i = 0; i < OBJECTS; i += 64) {
+            result ^= source.contains(objs.get(i));
+        }
+        return result;
+    }
+}
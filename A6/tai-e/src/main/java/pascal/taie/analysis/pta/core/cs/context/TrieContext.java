@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contexts interned in a trie. Each context is a node of the trie,
+ * and it is identified by its parent context and its last element.
+ * The contexts made by the same {@link Factory} are hash-consed,
+ * i.e., contexts of the same elements are the same instance, thus
+ * they can be compared by identity.
+ */
+public class TrieContext implements Context {
+
+    @Nullable
+    private final TrieContext parent;
+
+    @Nullable
+    private final Object elem;
+
+    private final int length;
+
+    private final int hashCode;
+
+    /**
+     * Map from context element to the child context which appends
+     * the element to this context. Created lazily.
+     */
+    @Nullable
+    private Map<Object, TrieContext> children;
+
+    private TrieContext() {
+        this.parent = null;
+        this.elem = null;
+        this.length = 0;
+        this.hashCode = 1;
+    }
+
+    private TrieContext(TrieContext parent, Object elem) {
+        this.parent = parent;
+        this.elem = elem;
+        this.length = parent.length + 1;
+        this.hashCode = 31 * parent.hashCode + elem.hashCode();
+    }
+
+    private TrieContext getChild(Object elem) {
+        if (children == null) {
+            children = Maps.newHybridMap();
+        }
+        return children.computeIfAbsent(elem, e -> new TrieContext(this, e));
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        if (i < 0 || i >= length) {
+            throw new AnalysisException(
+                    "Context " + this + " doesn't have " + i + "-th element");
+        }
+        TrieContext c = this;
+        for (int j = length - 1; j > i; --j) {
+            c = c.parent;
+        }
+        return c.elem;
+    }
+
+    /**
+     * Contexts of the same elements are interned, so equality
+     * is identity and {@link Object#equals(Object)} is kept.
+     */
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < length; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(getElementAt(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Makes contexts which are interned in the trie rooted
+     * at the empty context of this factory.
+     * The contexts made by different factories should not be mixed.
+     *
+     * @param <T> type of context elements
+     */
+    public static class Factory<T> implements ContextFactory<T> {
+
+        private final TrieContext rootContext = new TrieContext();
+
+        @Override
+        public Context getEmptyContext() {
+            return rootContext;
+        }
+
+        @Override
+        public Context make(List<T> elements) {
+            TrieContext result = rootContext;
+            for (T elem : elements) {
+                result = result.getChild(elem);
+            }
+            return result;
+        }
+
+        @Override
+        public Context makeLastK(Context context, int k) {
+            int length = context.getLength();
+            if (length <= k) {
+                return context;
+            }
+            TrieContext result = rootContext;
+            for (int i = length - k; i < length; ++i) {
+                result = result.getChild(context.getElementAt(i));
+            }
+            return result;
+        }
+
+        @Override
+        public Context append(Context parent, T elem, int limit) {
+            if (limit <= 0) {
+                return rootContext;
+            }
+            int length = parent.getLength();
+            TrieContext result;
+            if (length < limit && parent instanceof TrieContext trieParent) {
+                result = trieParent;
+            } else {
+                result = rootContext;
+                for (int i = Math.max(0, length - limit + 1); i < length; ++i) {
+                    result = result.getChild(parent.getElementAt(i));
+                }
+            }
+            return result.getChild(elem);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Manages context-sensitive elements and pointers by arrays.
+ * <p>
+ * The context-sensitive variables and call sites of a method are stored
+ * in the arrays of the method, indexed by the indexes of the variables
+ * and call sites in the method. Each array slot holds a small map from
+ * contexts to the elements of the same program element, as a program
+ * element usually has only a few contexts.
+ * <p>
+ * This manager is not thread-safe.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Map<JMethod, MethodElements> methodElements = Maps.newMap();
+
+    /**
+     * The method elements accessed most recently, which saves the lookups
+     * of {@link #methodElements} for consecutive accesses to the elements
+     * of the same method.
+     */
+    @Nullable
+    private MethodElements lastMethodElements;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final List<CSVar> csVars = new ArrayList<>();
+
+    private final Map<Obj, Map<Context, CSObj>> objs = Maps.newMap();
+
+    private final List<CSObj> objList = new ArrayList<>();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    /**
+     * Map from a base object to its instance fields.
+     */
+    private final Map<CSObj, Map<JField, InstanceField>> instanceFields = Maps.newMap();
+
+    private final List<InstanceField> instanceFieldList = new ArrayList<>();
+
+    private final Map<CSObj, ArrayIndex> arrayIndexes = Maps.newMap();
+
+    /**
+     * Factory of the points-to sets of the pointers created by this manager.
+     */
+    private final PointsToSetFactory ptsFactory;
+
+    public ArrayBasedCSManager() {
+        this(new PointsToSetFactory(false));
+    }
+
+    public ArrayBasedCSManager(PointsToSetFactory ptsFactory) {
+        this.ptsFactory = ptsFactory;
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        MethodElements elems = getMethodElements(var.getMethod());
+        int index = var.getIndex();
+        if (index >= elems.vars.length) {
+            elems.vars = grow(elems.vars, index);
+        }
+        Map<Context, CSVar> ctxVars = elems.vars[index];
+        if (ctxVars == null) {
+            ctxVars = Maps.newHybridMap();
+            elems.vars[index] = ctxVars;
+            vars.add(var);
+        }
+        CSVar csVar = ctxVars.get(context);
+        if (csVar == null) {
+            csVar = initializePointsToSet(new CSVar(var, context));
+            ctxVars.put(context, csVar);
+            csVars.add(csVar);
+        }
+        return csVar;
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objs.computeIfAbsent(obj, o -> Maps.newHybridMap())
+                .computeIfAbsent(heapContext, c -> {
+                    CSObj csObj = new CSObj(obj, c);
+                    objList.add(csObj);
+                    return csObj;
+                });
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        MethodElements elems = getMethodElements(callSite.getContainer());
+        int index = callSite.getIndex();
+        if (index >= elems.callSites.length) {
+            elems.callSites = grow(elems.callSites, index);
+        }
+        Map<Context, CSCallSite> ctxCallSites = elems.callSites[index];
+        if (ctxCallSites == null) {
+            ctxCallSites = Maps.newHybridMap();
+            elems.callSites[index] = ctxCallSites;
+        }
+        CSCallSite csCallSite = ctxCallSites.get(context);
+        if (csCallSite == null) {
+            csCallSite = new CSCallSite(callSite, context);
+            ctxCallSites.put(context, csCallSite);
+        }
+        return csCallSite;
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        Map<Context, CSMethod> csMethods = getMethodElements(method).csMethods;
+        CSMethod csMethod = csMethods.get(context);
+        if (csMethod == null) {
+            csMethod = new CSMethod(method, context);
+            csMethods.put(context, csMethod);
+        }
+        return csMethod;
+    }
+
+    private MethodElements getMethodElements(JMethod method) {
+        MethodElements elems = lastMethodElements;
+        if (elems == null || elems.method != method) {
+            elems = methodElements.computeIfAbsent(method, MethodElements::new);
+            lastMethodElements = elems;
+        }
+        return elems;
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        Map<JField, InstanceField> fields = instanceFields
+                .computeIfAbsent(base, b -> Maps.newHybridMap());
+        InstanceField instanceField = fields.get(field);
+        if (instanceField == null) {
+            instanceField = initializePointsToSet(new InstanceField(base, field));
+            fields.put(field, instanceField);
+            instanceFieldList.add(instanceField);
+        }
+        return instanceField;
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return arrayIndexes.computeIfAbsent(array,
+                a -> initializePointsToSet(new ArrayIndex(a)));
+    }
+
+    private <P extends Pointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(ptsFactory.newPointsToSet());
+        return pointer;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> Map<K, V>[] newArray(int length) {
+        return (Map<K, V>[]) new Map[length];
+    }
+
+    /**
+     * @return a copy of given array which is large enough to
+     * hold the element at given index.
+     */
+    private static <T> T[] grow(T[] array, int index) {
+        int length = Math.max(index + 1, array.length * 2);
+        return Arrays.copyOf(array, Math.max(length, INITIAL_CAPACITY));
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableList(vars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.unmodifiableList(csVars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        MethodElements elems = methodElements.get(var.getMethod());
+        if (elems != null && var.getIndex() < elems.vars.length) {
+            Map<Context, CSVar> ctxVars = elems.vars[var.getIndex()];
+            if (ctxVars != null) {
+                return Collections.unmodifiableCollection(ctxVars.values());
+            }
+        }
+        return Set.of();
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return Collections.unmodifiableList(objList);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFieldList);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableCollection(arrayIndexes.values());
+    }
+
+    /**
+     * Context-sensitive elements of a method, and of the variables and
+     * call sites in the method.
+     */
+    private static class MethodElements {
+
+        private final JMethod method;
+
+        private final Map<Context, CSMethod> csMethods = Maps.newHybridMap();
+
+        private Map<Context, CSVar>[] vars = newArray(0);
+
+        private Map<Context, CSCallSite>[] callSites = newArray(0);
+
+        private MethodElements(JMethod method) {
+            this.method = method;
+        }
+    }
+}
@@ -30,8 +30,10 @@ import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.SolverMetrics;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
@@ -54,13 +56,27 @@ import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Minimum number of pointers in a shard when solving in parallel.
+     */
+    private static final int MIN_SHARD_SIZE = 64;
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -69,12 +85,31 @@ class Solver {
 
     private CSManager csManager;
 
+    private PointsToSetFactory ptsFactory;
+
     private CSCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
 
     private WorkList workList;
 
+    /**
+     * Whether the cycles in PFG are detected and collapsed.
+     */
+    private boolean cycleDetection;
+
+    /**
+     * PFG edges which have triggered cycle detection.
+     */
+    private MultiMap<Pointer, Pointer> checkedEdges;
+
+    /**
+     * Number of threads for propagating points-to sets.
+     */
+    private int parallelism;
+
+    private SolverMetrics metrics;
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
@@ -85,15 +120,49 @@ class Solver {
     }
 
     void solve() {
+        metrics = new SolverMetrics();
+        metrics.start();
         initialize();
         analyze();
+        metrics.addWorkListEntries(workList.getPolledEntries());
+        metrics.stop();
+        if (parallelism > 1) {
+            logger.info("#threads: {}", parallelism);
+        }
+        logger.info("#work-list entries: {} added, {} processed ({} mode)",
+                workList.getAddedEntries(), workList.getPolledEntries(),
+                workList.isMerging() ? "merge" : "queue");
+        if (cycleDetection) {
+            logger.info("#merged pointers: {}",
+                    pointerFlowGraph.getNumberOfMergedPointers());
+        }
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        // option "cs-manager" selects the manager of context-sensitive
+        // elements: maps (default) or arrays indexed by elements ("array")
+        // option "pts" selects the representation of points-to sets:
+        // hybrid sets (default) or bit sets over object indexes ("bitset")
+        // the map-based manager always makes hybrid sets, thus bit sets
+        // are made by the array-based manager
+        boolean bitSetPts = "bitset".equals(options.getString("pts"));
+        ptsFactory = new PointsToSetFactory(bitSetPts);
+        csManager = bitSetPts || "array".equals(options.getString("cs-manager")) ?
+                new ArrayBasedCSManager(ptsFactory) : new MapBasedCSManager();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        // option "worklist" selects the work list: a queue of entries
+        // (default) or merged pending entries for each pointer ("merge")
+        workList = new WorkList("merge".equals(options.getString("worklist")),
+                ptsFactory);
+        // option "pfg" enables lazy cycle detection, which merges
+        // the pointers in PFG cycles ("collapse")
+        cycleDetection = "collapse".equals(options.getString("pfg"));
+        checkedEdges = Maps.newMultiMap();
+        // option "threads" sets the number of threads for propagating
+        // points-to sets, 1 (sequential) by default
+        parallelism = options.get("threads") != null ?
+                Math.max(1, options.getInt("threads")) : 1;
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -109,10 +178,12 @@ class Solver {
         // TODO - finish me
 
         if(callGraph.addReachableMethod(csMethod)){
+            metrics.enterPhase(SolverMetrics.Phase.ADD_REACHABLE);
             StmtProcessor processor = new StmtProcessor(csMethod);
             for(Stmt stmt : csMethod.getMethod().getIR().getStmts()){
                 stmt.accept(processor);
             }
+            metrics.exitPhase();
         }
     }
 
@@ -137,7 +208,7 @@ class Solver {
         public Void visit(New stmt) {
             Obj obj = heapModel.getObj(stmt);
             CSObj csObj = csManager.getCSObj(contextSelector.selectHeapContext(csMethod, obj), obj);
-            workList.addEntry(csManager.getCSVar(context, stmt.getLValue()), PointsToSetFactory.make(csObj));
+            workList.addEntry(csManager.getCSVar(context, stmt.getLValue()), ptsFactory.newPointsToSet(csObj));
             return null;
         }
 
@@ -172,7 +243,9 @@ class Solver {
                 Context ct = contextSelector.selectContext(csManager.getCSCallSite(context, callSite), callee);
                 CSMethod csCallee = csManager.getCSMethod(ct, callee);
 
-                callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), csManager.getCSCallSite(context, callSite), csCallee));
+                if(callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), csManager.getCSCallSite(context, callSite), csCallee))){
+                    metrics.addCallEdge();
+                }
                 addReachable(csCallee);
                 pass(csManager.getCSCallSite(context, callSite), csCallee);
             }
@@ -188,8 +261,9 @@ class Solver {
         // TODO - finish me
 
         if(pointerFlowGraph.addEdge(source, target)){
+            metrics.addPFGEdge();
             if(!source.getPointsToSet().isEmpty()){
-                workList.addEntry(target, source.getPointsToSet());
+                workList.addEntry(target, pendingSetOf(source));
             }
         }
     }
@@ -200,38 +274,189 @@ class Solver {
     private void analyze() {
         // TODO - finish me
 
+        if(parallelism > 1){
+            analyzeInParallel();
+            return;
+        }
         while(!workList.isEmpty()){
             WorkList.Entry entry = workList.pollEntry();
-            Pointer ptr = entry.pointer();
+            Pointer ptr = pointerFlowGraph.getRepresentative(entry.pointer());
             PointsToSet delta = propagate(ptr, entry.pointsToSet());
+            processDelta(ptr, delta);
+        }
+    }
 
-            if(ptr instanceof CSVar csVar){
-                Context context = csVar.getContext();
-                Var var = csVar.getVar();
-
-                for(CSObj csObj : delta){
-                    // NOTE: x.f = y
-                    for(StoreField storeField : var.getStoreFields()){
-                        addPFGEdge(csManager.getCSVar(context, storeField.getRValue()),
-                                    csManager.getInstanceField(csObj, storeField.getFieldRef().resolve()));
+    /**
+     * Processes work-list entries in rounds until the work-list is empty.
+     * In each round, the pending entries are grouped by pointers, and
+     * split into shards which are propagated on a fork-join pool.
+     * As each pointer belongs to exactly one shard, its points-to set
+     * is updated by one thread without locking. Then the new discovered
+     * objects are processed in the solver thread, as the IR, heap model
+     * and context selector are not thread-safe.
+     */
+    private void analyzeInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while(!workList.isEmpty()){
+                List<WorkList.Entry> entries = pollPendingEntries();
+                metrics.enterPhase(SolverMetrics.Phase.PROPAGATE);
+                int shards = Math.min(parallelism,
+                        (entries.size() + MIN_SHARD_SIZE - 1) / MIN_SHARD_SIZE);
+                List<List<WorkList.Entry>> deltas = new ArrayList<>(shards);
+                List<List<WorkList.Entry>> succEntries = new ArrayList<>(shards);
+                List<ForkJoinTask<?>> tasks = new ArrayList<>(shards);
+                for(int i = 0; i < shards; ++i){
+                    List<WorkList.Entry> shard = entries.subList(
+                            entries.size() * i / shards,
+                            entries.size() * (i + 1) / shards);
+                    List<WorkList.Entry> shardDeltas = new ArrayList<>();
+                    List<WorkList.Entry> shardSuccEntries = new ArrayList<>();
+                    deltas.add(shardDeltas);
+                    succEntries.add(shardSuccEntries);
+                    if(shards == 1){
+                        propagateShard(shard, shardDeltas, shardSuccEntries);
+                    } else {
+                        tasks.add(pool.submit(() ->
+                                propagateShard(shard, shardDeltas, shardSuccEntries)));
                     }
-                    // NOTE: y = x.f
-                    for(LoadField loadField : var.getLoadFields()){
-                        addPFGEdge(csManager.getInstanceField(csObj, loadField.getFieldRef().resolve()),
-                                    csManager.getCSVar(context, loadField.getLValue()));
+                }
+                tasks.forEach(ForkJoinTask::join);
+                metrics.exitPhase();
+                for(int i = 0; i < shards; ++i){
+                    for(WorkList.Entry entry : succEntries.get(i)){
+                        workList.addEntry(entry.pointer(), entry.pointsToSet());
                     }
-                    // NOTE: arr[*] = y;
-                    for(StoreArray storeArray : var.getStoreArrays()){
-                        addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(csObj));
+                    for(WorkList.Entry entry : deltas.get(i)){
+                        // the pointer may have been merged into another
+                        // one by the deltas processed before
+                        processDelta(pointerFlowGraph.getRepresentative(entry.pointer()),
+                                entry.pointsToSet());
                     }
-                    // NOTE: y = arr[*]
-                    for(LoadArray loadArray : var.getLoadArrays()){
-                        addPFGEdge(csManager.getArrayIndex(csObj), csManager.getCSVar(context, loadArray.getLValue()));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Retrieves all entries from the work-list, and merges the entries
+     * of the same pointer (representative).
+     */
+    private List<WorkList.Entry> pollPendingEntries() {
+        Map<Pointer, PointsToSet> pending = new LinkedHashMap<>();
+        Set<Pointer> copied = Sets.newSet();
+        while(!workList.isEmpty()){
+            WorkList.Entry entry = workList.pollEntry();
+            Pointer ptr = pointerFlowGraph.getRepresentative(entry.pointer());
+            PointsToSet pts = pending.get(ptr);
+            if(pts == null){
+                pending.put(ptr, entry.pointsToSet());
+            } else {
+                if(copied.add(ptr)){
+                    PointsToSet copy = ptsFactory.newPointsToSet();
+                    copy.addAll(pts);
+                    pending.put(ptr, pts = copy);
+                }
+                pts.addAll(entry.pointsToSet());
+            }
+        }
+        List<WorkList.Entry> entries = new ArrayList<>(pending.size());
+        pending.forEach((ptr, pts) -> entries.add(new WorkList.Entry(ptr, pts)));
+        return entries;
+    }
+
+    /**
+     * Propagates the entries of a shard. The new discovered objects
+     * of the pointers are stored in deltas, and the entries for their
+     * PFG successors are stored in succEntries.
+     */
+    private void propagateShard(List<WorkList.Entry> shard,
+                                List<WorkList.Entry> deltas,
+                                List<WorkList.Entry> succEntries) {
+        for(WorkList.Entry entry : shard){
+            Pointer ptr = entry.pointer();
+            PointsToSet delta = ptr.getPointsToSet().addAllDiff(entry.pointsToSet());
+            if(!delta.isEmpty()){
+                deltas.add(new WorkList.Entry(ptr, delta));
+                for(Pointer succ : pointerFlowGraph.getSuccsOf(ptr)){
+                    Pointer succRep = pointerFlowGraph.getRepresentative(succ);
+                    if(succRep != ptr){
+                        succEntries.add(new WorkList.Entry(succRep, delta));
                     }
-                    processCall(csVar, csObj);
                 }
             }
+        }
+    }
 
+    /**
+     * Processes the new discovered objects of a pointer (representative)
+     * and the pointers merged into it.
+     */
+    private void processDelta(Pointer ptr, PointsToSet delta) {
+        if(!delta.isEmpty()){
+            metrics.addPropagatedObjects(delta.size());
+            processPointer(ptr, delta);
+            for(Pointer merged : pointerFlowGraph.getMergedPointersOf(ptr)){
+                processPointer(merged, delta);
+            }
+            if(cycleDetection){
+                detectCycles(ptr);
+            }
+        }
+    }
+
+    /**
+     * @return the points-to set of pointer to be added to the work-list.
+     * When solving in parallel, the points-to set may be updated by other
+     * threads while the entry is pending, thus a copy is returned.
+     */
+    private PointsToSet pendingSetOf(Pointer pointer) {
+        PointsToSet pts = pointer.getPointsToSet();
+        if(parallelism > 1){
+            PointsToSet copy = ptsFactory.newPointsToSet();
+            copy.addAll(pts);
+            return copy;
+        }
+        return pts;
+    }
+
+    /**
+     * Processes the statements related to pointer
+     * when its points-to set changes.
+     *
+     * @param ptr   the pointer whose points-to set changes
+     * @param delta set of new discovered objects pointed by the pointer.
+     */
+    private void processPointer(Pointer ptr, PointsToSet delta) {
+        if(ptr instanceof CSVar csVar){
+            Context context = csVar.getContext();
+            Var var = csVar.getVar();
+
+            for(CSObj csObj : delta){
+                // NOTE: x.f = y
+                for(StoreField storeField : var.getStoreFields()){
+                    addPFGEdge(csManager.getCSVar(context, storeField.getRValue()),
+                            csManager.getInstanceField(csObj, storeField.getFieldRef().resolve()));
+                }
+                // NOTE: y = x.f
+                for(LoadField loadField : var.getLoadFields()){
+                    addPFGEdge(csManager.getInstanceField(csObj, loadField.getFieldRef().resolve()),
+                            csManager.getCSVar(context, loadField.getLValue()));
+                }
+                // NOTE: arr[*] = y;
+                for(StoreArray storeArray : var.getStoreArrays()){
+                    addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(csObj));
+                }
+                // NOTE: y = arr[*]
+                for(LoadArray loadArray : var.getLoadArrays()){
+                    addPFGEdge(csManager.getArrayIndex(csObj), csManager.getCSVar(context, loadArray.getLValue()));
+                }
+                metrics.enterPhase(SolverMetrics.Phase.PROCESS_CALL);
+                processCall(csVar, csObj);
+                metrics.exitPhase();
+            }
         }
     }
 
@@ -242,22 +467,109 @@ class Solver {
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
 
-        PointsToSet delta = PointsToSetFactory.make();
-        PointsToSet has = pointer.getPointsToSet();
-
-        for(CSObj obj : pointsToSet){
-            if(has.addObject(obj)){
-                delta.addObject(obj);
-            }
-        }
+        metrics.enterPhase(SolverMetrics.Phase.PROPAGATE);
+        PointsToSet delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
         if(!delta.isEmpty()){
             for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)){
-                workList.addEntry(succ, delta);
+                Pointer succRep = pointerFlowGraph.getRepresentative(succ);
+                if(succRep != pointer){
+                    workList.addEntry(succRep, delta);
+                }
             }
         }
+        metrics.exitPhase();
         return delta;
     }
 
+    /**
+     * Lazy cycle detection. When delta is propagated from pointer, and
+     * pt(succ) already contains pt(pointer), the edge pointer -> succ is
+     * likely in a cycle, thus searches a path from succ back to pointer
+     * and collapses the cycle. Each edge triggers the search at most once.
+     */
+    private void detectCycles(Pointer pointer) {
+        PointsToSet pts = pointer.getPointsToSet();
+        List<Pointer> candidates = new ArrayList<>();
+        for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)){
+            Pointer succRep = pointerFlowGraph.getRepresentative(succ);
+            PointsToSet succPts = succRep.getPointsToSet();
+            // the sizes are compared first, as pt(succ) cannot contain
+            // a larger pt(pointer); the edge is recorded only when the
+            // detection fires, as pt(succ) may catch up with pt(pointer) later
+            if(succRep != pointer
+                    && succPts.size() >= pts.size()
+                    && succPts.containsAll(pts)
+                    && checkedEdges.put(pointer, succRep)){
+                candidates.add(succRep);
+            }
+        }
+        for(Pointer candidate : candidates){
+            // pointer may have been merged by the previous collapses
+            List<Pointer> cycle = pointerFlowGraph.findCycle(pointer, candidate);
+            if(!cycle.isEmpty()){
+                collapse(cycle);
+            }
+        }
+    }
+
+    /**
+     * Merges the pointers in a cycle into the pointer
+     * with the largest points-to set.
+     */
+    private void collapse(List<Pointer> cycle) {
+        Pointer rep = cycle.get(0);
+        for(Pointer pointer : cycle){
+            if(pointer.getPointsToSet().size() > rep.getPointsToSet().size()){
+                rep = pointer;
+            }
+        }
+        for(Pointer pointer : cycle){
+            if(pointer != rep){
+                mergePointer(pointer, rep);
+            }
+        }
+    }
+
+    /**
+     * Merges a representative pointer (and the pointers merged into it)
+     * into rep, after which they share the points-to set of rep.
+     */
+    private void mergePointer(Pointer pointer, Pointer rep) {
+        PointsToSet oldPts = pointer.getPointsToSet();
+        PointsToSet repPts = rep.getPointsToSet();
+        // objects of pointer flow to rep (and its successors)
+        if(!oldPts.isEmpty()){
+            workList.addEntry(rep, oldPts);
+        }
+        // objects of rep flow to the successors of pointer
+        for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)){
+            if(!repPts.isEmpty()){
+                workList.addEntry(succ, pendingSetOf(rep));
+            }
+        }
+        PointsToSet diff = ptsFactory.newPointsToSet();
+        for(CSObj obj : repPts){
+            if(!oldPts.contains(obj)){
+                diff.addObject(obj);
+            }
+        }
+        List<Pointer> pointers = new ArrayList<>(
+                pointerFlowGraph.getMergedPointersOf(pointer));
+        pointers.add(pointer);
+        pointerFlowGraph.merge(pointer, rep);
+        metrics.addMergedPointers(pointers.size());
+        for(Pointer p : pointers){
+            p.setPointsToSet(repPts);
+        }
+        // the statements related to the merged pointers
+        // are processed with the objects they have not seen
+        if(!diff.isEmpty()){
+            for(Pointer p : pointers){
+                processPointer(p, diff);
+            }
+        }
+    }
+
     /**
      * Processes instance calls when points-to set of the receiver variable changes.
      *
@@ -275,10 +587,11 @@ class Solver {
             CSCallSite csCallSite = csManager.getCSCallSite(c, callSite);
 
             Context ct = contextSelector.selectContext(csCallSite, recvObj, callee);
-            workList.addEntry(csManager.getCSVar(ct, callee.getIR().getThis()), PointsToSetFactory.make(recvObj));
+            workList.addEntry(csManager.getCSVar(ct, callee.getIR().getThis()), ptsFactory.newPointsToSet(recvObj));
 
             CSMethod csCallee = csManager.getCSMethod(ct, callee);
             if(callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), csCallSite, csCallee))){
+                metrics.addCallEdge();
                 addReachable(csCallee);
                 pass(csCallSite, csCallee);
             }
@@ -319,6 +632,10 @@ class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    SolverMetrics getMetrics() {
+        return metrics;
+    }
+
     PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(csManager, callGraph);
@@ -23,18 +23,44 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
- * Provides static factory methods for {@link PointsToSet}.
+ * Provides factory methods for {@link PointsToSet}.
+ * <p>
+ * The static methods make points-to sets backed by hybrid sets.
+ * An instance of this class makes the points-to sets of one analysis,
+ * which are bit sets over the object indexes given by the indexer
+ * owned by the instance, or hybrid sets.
  */
 public class PointsToSetFactory {
 
     private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
 
+    /**
+     * Indexer of the objects in bit-set-based points-to sets.
+     * If this field is null, the points-to sets are backed by hybrid sets.
+     */
+    @Nullable
+    private final CSObjIndexer objIndexer;
+
+    /**
+     * @param bitSet if true, then points-to sets are represented as bit sets
+     *               over the object indexes given by this factory;
+     *               otherwise, they are backed by hybrid sets.
+     */
+    public PointsToSetFactory(boolean bitSet) {
+        this.objIndexer = bitSet ? new CSObjIndexer() : null;
+    }
+
     public static PointsToSet make() {
         return new DelegatePointsToSet(setFactory.get());
     }
@@ -47,4 +73,63 @@ public class PointsToSetFactory {
         set.addObject(obj);
         return set;
     }
+
+    /**
+     * @return a points-to set of the representation of this factory.
+     */
+    public PointsToSet newPointsToSet() {
+        return objIndexer != null ? new BitSetPointsToSet(objIndexer) : make();
+    }
+
+    /**
+     * Convenient method for making one-element points-to set
+     * of the representation of this factory.
+     */
+    public PointsToSet newPointsToSet(CSObj obj) {
+        PointsToSet set = newPointsToSet();
+        set.addObject(obj);
+        return set;
+    }
+
+    /**
+     * Assigns consecutive indexes to context-sensitive objects when they
+     * are first added to a points-to set. The indexes are kept aside of
+     * the objects, so that the objects can be created by any CS manager.
+     * <p>
+     * The objects are usually indexed by the solver thread, but the sets
+     * may also be updated by propagation threads, thus this indexer is
+     * thread-safe.
+     */
+    private static class CSObjIndexer implements Indexer<CSObj> {
+
+        private final Map<CSObj, Integer> indexes = new ConcurrentHashMap<>();
+
+        private volatile CSObj[] objs = new CSObj[8192];
+
+        @Override
+        public int getIndex(CSObj o) {
+            Integer index = indexes.get(o);
+            return index != null ? index : assignIndex(o);
+        }
+
+        private synchronized int assignIndex(CSObj o) {
+            Integer index = indexes.get(o);
+            if (index == null) {
+                index = indexes.size();
+                CSObj[] array = objs;
+                if (index >= array.length) {
+                    array = Arrays.copyOf(array, array.length * 2);
+                }
+                array[index] = o;
+                objs = array;
+                indexes.put(o, index);
+            }
+            return index;
+        }
+
+        @Override
+        public CSObj getObject(int index) {
+            return objs[index];
+        }
+    }
 }
@@ -22,9 +22,15 @@
 
 package pascal.taie.analysis.pta;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+
 public class CSPTATest {
 
     static final String DIR = "cspta";
@@ -54,6 +60,28 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "InstanceField");
     }
 
+    @Test
+    public void testInstanceFieldCollapsedCycles() {
+        Tests.testCSPTA(DIR, "InstanceField", "pfg:collapse");
+    }
+
+    @Test
+    public void testCycleCollapsed() throws IOException {
+        // the solver metrics tell whether the pointers in the cycle
+        // are merged, which is invisible in the points-to sets
+        File metrics = File.createTempFile("Cycle-cspta", "-metrics.json");
+        metrics.deleteOnExit();
+        Tests.testCSPTA(DIR, "Cycle", "pfg:collapse;metrics:" + metrics.getPath());
+        long merged = new ObjectMapper().readTree(metrics)
+                .get("mergedPointers").asLong();
+        assertTrue("pointers in PFG cycle are not merged", merged > 0);
+    }
+
+    @Test
+    public void testCycleCollapsedParallel() {
+        Tests.testCSPTA(DIR, "Cycle", "pfg:collapse;threads:4");
+    }
+
     @Test
     public void testOneCall() {
         Tests.testCSPTA(DIR, "OneCall", "cs:1-call");
@@ -74,11 +102,31 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "TwoCall", "cs:2-call");
     }
 
+    @Test
+    public void testTwoCallMergedWorkList() {
+        Tests.testCSPTA(DIR, "TwoCall", "cs:2-call;worklist:merge");
+    }
+
     @Test
     public void testTwoObject() {
         Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
     }
 
+    @Test
+    public void testTwoObjectBitSet() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;pts:bitset");
+    }
+
+    @Test
+    public void testTwoObjectArrayCSManager() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;cs-manager:array");
+    }
+
+    @Test
+    public void testTwoObjectParallel() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;threads:4");
+    }
+
     @Test
     public void testTwoType() {
         Tests.testCSPTA(DIR, "TwoType", "cs:2-type");
@@ -0,0 +1,18 @@
+class Cycle {
+
+    public static void main(String[] args) {
+        A a = new A();
+        A b = a;
+        A c = b;
+        a = c;
+        A d = new A();
+        a = id(d);
+    }
+
+    static A id(A x) {
+        return x;
+    }
+}
+
+class A {
+}
@@ -38,8 +38,20 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Representation of the facts, i.e., "map", "dense" for
+     * {@link DenseCPFact}, or "persistent" for {@link PersistentCPFact}.
+     */
+    private final String factKind;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        String fact = getOptions().getString("fact");
+        factKind = fact != null ? fact : "map";
+        if (!factKind.equals("map") && !factKind.equals("dense")
+                && !factKind.equals("persistent")) {
+            throw new IllegalArgumentException("Unknown fact representation: " + fact);
+        }
     }
 
     @Override
@@ -51,7 +63,7 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
 
-        CPFact res = new CPFact();
+        CPFact res = newInitialFact();
         for(Var arg : cfg.getIR().getParams()){
             if(canHoldInt(arg)) {
                 res.update(arg, Value.getNAC());
@@ -64,13 +76,21 @@ public class ConstantPropagation extends
     public CPFact newInitialFact() {
         // TODO - finish me
 
-        return new CPFact();
+        return switch (factKind) {
+            case "dense" -> new DenseCPFact();
+            case "persistent" -> new PersistentCPFact();
+            default -> new CPFact();
+        };
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         //TODO - finish me
 
+        if (fact instanceof DenseCPFact f && target instanceof DenseCPFact t) {
+            t.meet(f);
+            return;
+        }
         fact.entries().forEach(entry -> {
             Var key = entry.getKey();
             Value v = entry.getValue();
@@ -107,11 +127,7 @@ public class ConstantPropagation extends
 
         // NOTE: 需要使用 canHoldInt 来过滤 stmt 中的 Var
 
-        boolean change = false;
-
-        for(Var key : in.keySet()){
-            change |= out.update(key, in.get(key));
-        }
+        boolean change = out.copyFrom(in);
 
         if(stmt instanceof DefinitionStmt<?, ?> def){
             LValue left = def.getLValue();
@@ -0,0 +1,276 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents data facts of constant propagation as arrays indexed by
+ * {@link Var#getIndex()}. The lattice value of each variable is encoded
+ * in a {@code long}, so that getting, updating, copying and meeting
+ * the facts do not allocate {@link Value}s or map entries.
+ * <p>
+ * As variable indexes are unique only within a method, a fact can only
+ * hold the variables of one method. This class does not use the map
+ * inherited from {@link MapFact} and overrides all methods accessing it,
+ * thus an analysis should not mix DenseCPFacts with other CPFacts.
+ */
+public class DenseCPFact extends CPFact {
+
+    private static final Var[] EMPTY_VARS = {};
+
+    private static final long[] EMPTY_VALUES = {};
+
+    /**
+     * Encoding of UNDEF. It is zero, so that new arrays hold UNDEF only.
+     */
+    private static final long UNDEF = 0;
+
+    /**
+     * Flag of constants, whose integers are stored in the low 32 bits.
+     */
+    private static final long CONSTANT = 1L << 32;
+
+    /**
+     * Encoding of NAC.
+     */
+    private static final long NAC = 2L << 32;
+
+    /**
+     * The variables of the non-UNDEF values, indexed by variable index.
+     * The variables at the indexes of UNDEF values are meaningless.
+     */
+    private Var[] vars;
+
+    /**
+     * The encoded values, indexed by variable index.
+     */
+    private long[] values;
+
+    public DenseCPFact() {
+        this(EMPTY_VARS, EMPTY_VALUES);
+    }
+
+    private DenseCPFact(Var[] vars, long[] values) {
+        this.vars = vars;
+        this.values = values;
+    }
+
+    private static long encode(Value value) {
+        if (value.isUndef()) {
+            return UNDEF;
+        } else if (value.isNAC()) {
+            return NAC;
+        } else {
+            return CONSTANT | (value.getConstant() & 0xFFFFFFFFL);
+        }
+    }
+
+    private static Value decode(long value) {
+        if (value == UNDEF) {
+            return Value.getUndef();
+        } else if (value == NAC) {
+            return Value.getNAC();
+        } else {
+            return Value.makeConstant((int) value);
+        }
+    }
+
+    /**
+     * Meets two encoded values.
+     */
+    private static long meet(long v1, long v2) {
+        if (v1 == v2 || v2 == UNDEF) {
+            return v1;
+        } else if (v1 == UNDEF) {
+            return v2;
+        } else {
+            return NAC;
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (values.length < length) {
+            int newLength = Math.max(2 * values.length, length);
+            vars = Arrays.copyOf(vars, newLength);
+            values = Arrays.copyOf(values, newLength);
+        }
+    }
+
+    /**
+     * Sets the encoded value of given variable.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    private boolean set(int index, Var var, long value) {
+        long old = values[index];
+        if (old != UNDEF && vars[index] != var) {
+            throw new AnalysisException(var + " and " + vars[index] +
+                    " of different methods cannot be held in the same fact");
+        }
+        vars[index] = var;
+        values[index] = value;
+        return old != value;
+    }
+
+    @Override
+    public Value get(Var key) {
+        int index = key.getIndex();
+        if (index < values.length && vars[index] == key) {
+            return decode(values[index]);
+        }
+        return Value.getUndef();
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        if (value.isUndef()) {
+            return remove(key) != null;
+        }
+        int index = key.getIndex();
+        ensureCapacity(index + 1);
+        return set(index, key, encode(value));
+    }
+
+    @Override
+    public Value remove(Var key) {
+        int index = key.getIndex();
+        if (index < values.length && vars[index] == key
+                && values[index] != UNDEF) {
+            Value old = decode(values[index]);
+            values[index] = UNDEF;
+            return old;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof DenseCPFact other) {
+            long[] otherValues = other.values;
+            ensureCapacity(otherValues.length);
+            boolean changed = false;
+            for (int i = 0; i < otherValues.length; ++i) {
+                if (otherValues[i] != UNDEF) {
+                    changed |= set(i, other.vars[i], otherValues[i]);
+                }
+            }
+            return changed;
+        }
+        boolean[] changed = { false };
+        fact.forEach((var, value) -> changed[0] |= update(var, value));
+        return changed[0];
+    }
+
+    /**
+     * Meets given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(DenseCPFact fact) {
+        long[] otherValues = fact.values;
+        ensureCapacity(otherValues.length);
+        boolean changed = false;
+        for (int i = 0; i < otherValues.length; ++i) {
+            if (otherValues[i] != UNDEF) {
+                changed |= set(i, fact.vars[i], meet(values[i], otherValues[i]));
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public DenseCPFact copy() {
+        return new DenseCPFact(vars.clone(), values.clone());
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, UNDEF);
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        Set<Var> keySet = Sets.newHybridSet();
+        forEach((var, value) -> keySet.add(var));
+        return keySet;
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return IntStream.range(0, values.length)
+                .filter(i -> values[i] != UNDEF)
+                .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(
+                        vars[i], decode(values[i])));
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != UNDEF) {
+                action.accept(vars[i], decode(values[i]));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DenseCPFact that)) {
+            return false;
+        }
+        int length = Math.max(values.length, that.values.length);
+        for (int i = 0; i < length; ++i) {
+            long v1 = i < values.length ? values[i] : UNDEF;
+            long v2 = i < that.values.length ? that.values[i] : UNDEF;
+            if (v1 != v2 || (v1 != UNDEF && vars[i] != that.vars[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != UNDEF) {
+                hashCode += vars[i].hashCode() ^ Long.hashCode(values[i]);
+            }
+        }
+        return hashCode;
+    }
+}
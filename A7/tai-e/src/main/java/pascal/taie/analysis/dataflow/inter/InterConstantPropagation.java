@@ -39,8 +39,12 @@ import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.TwoKeyMap;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation.canHoldInt;
@@ -53,14 +57,46 @@ public class InterConstantPropagation extends
 
     public static final String ID = "inter-constprop";
     private final ConstantPropagation cp;
-    private final Map<Var, Set<Var>> alias;
+    /**
+     * Map from each (abstract object, field) to the instance field loads
+     * which may read the field of the object.
+     */
+    private final TwoKeyMap<Obj, JField, Set<LoadField>> fieldLoads;
+    /**
+     * Map from each (abstract object, field) to the meet of the values
+     * stored into the field of the object so far. As the IN facts of the
+     * stores only go up in the lattice, the stores update the values
+     * incrementally, and the loads read them without visiting the stores.
+     */
+    private final TwoKeyMap<Obj, JField, Value> fieldValues;
+    /**
+     * Map from each abstract object to the array loads and array stores
+     * whose bases may point to it. The accesses of two variables are
+     * aliased iff they share an object.
+     */
+    private final MultiMap<Obj, LoadArray> objLoadArrays;
+    private final MultiMap<Obj, StoreArray> objStoreArrays;
+    /**
+     * Map from each array base variable to the array loads and array
+     * stores which may access the same arrays, which are computed from
+     * the above indexes on demand and reused by later transfers.
+     */
+    private final Map<Var, Set<LoadArray>> aliasedLoadArrays;
+    private final Map<Var, Set<StoreArray>> aliasedStoreArrays;
+    private PointerAnalysisResult pta;
     private final Map<JField, Set<LoadField>> staticLoadFields;
     private final Map<JField, Set<StoreField>> staticStoreFields;
 
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
-        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
-        alias = new HashMap<>();
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "fact", getOptions().getString("fact")));
+        fieldLoads = Maps.newTwoKeyMap();
+        fieldValues = Maps.newTwoKeyMap();
+        objLoadArrays = Maps.newMultiMap();
+        objStoreArrays = Maps.newMultiMap();
+        aliasedLoadArrays = Maps.newMap();
+        aliasedStoreArrays = Maps.newMap();
         staticStoreFields = new HashMap<>();
         staticLoadFields = new HashMap<>();
     }
@@ -68,24 +104,25 @@ public class InterConstantPropagation extends
     @Override
     protected void initialize() {
         String ptaId = getOptions().getString("pta");
-        PointerAnalysisResult pta = World.get().getResult(ptaId);
-
-        // NOTE: get alias
-        Collection<Var> vars = pta.getVars();
-        for (Var x : vars) {
-            alias.put(x, new HashSet<>() {{
-                add(x);
-            }});
-            Set<Obj> pointsToSet = pta.getPointsToSet(x);
-            for (Var y : vars) {
-                if (!x.equals(y)) {
-                    for (Obj obj : pta.getPointsToSet(y)){
-                        if (pointsToSet.contains(obj)) {
-                            alias.get(x).add(y);
-                            break;
-                        }
-                    }
+        pta = World.get().getResult(ptaId);
+
+        // NOTE: index the heap accesses by the objects pointed to by their
+        // bases, instead of comparing the points-to sets of all pairs of
+        // variables, so that each access is visited once per object
+        for (Var x : pta.getVars()) {
+            if (x.getLoadFields().isEmpty() && x.getLoadArrays().isEmpty()
+                    && x.getStoreArrays().isEmpty()) {
+                continue;
+            }
+            for (Obj obj : pta.getPointsToSet(x)) {
+                for (LoadField loadField : x.getLoadFields()) {
+                    fieldLoads.computeIfAbsent(obj,
+                                    loadField.getFieldRef().resolve(),
+                                    (o, f) -> new HashSet<>())
+                            .add(loadField);
                 }
+                objLoadArrays.putAll(obj, x.getLoadArrays());
+                objStoreArrays.putAll(obj, x.getStoreArrays());
             }
         }
         // NOTE: get static field statement
@@ -135,22 +172,14 @@ public class InterConstantPropagation extends
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
 
-        boolean change = false;
-        for(Var key : in.keySet()){
-            change |= out.update(key, in.get(key));
-        }
-        return change;
+        return out.copyFrom(in);
     }
 
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
 
-        boolean change = false;
-
-        for(Var key : in.keySet()){
-            change |= out.update(key, in.get(key));
-        }
+        boolean change = out.copyFrom(in);
 
         // NOTE: x.f = y
         if(stmt instanceof StoreField storeField){
@@ -161,11 +190,14 @@ public class InterConstantPropagation extends
                     staticLoadFields.getOrDefault(field, new HashSet<>()).forEach(solver::add);
                 }else{
                     Var base = ((InstanceFieldAccess) storeField.getLValue()).getBase();
-                    for(Var x : alias.getOrDefault(base, new HashSet<>())){
-                        x.getLoadFields()
-                                .stream()
-                                .filter(loadField -> field.equals(loadField.getFieldRef().resolve()))
-                                .forEach(solver::add);
+                    Value value = in.get(right);
+                    for(Obj obj : pta.getPointsToSet(base)){
+                        Value oldValue = fieldValues.getOrDefault(obj, field, Value.getUndef());
+                        Value newValue = cp.meetValue(oldValue, value);
+                        if(!newValue.equals(oldValue)){
+                            fieldValues.put(obj, field, newValue);
+                            fieldLoads.getOrDefault(obj, field, Set.of()).forEach(solver::add);
+                        }
                     }
                 }
             }
@@ -184,13 +216,8 @@ public class InterConstantPropagation extends
                 }else{
                     Var base = ((InstanceFieldAccess) loadField.getRValue()).getBase();
 
-                    for(Var x : alias.getOrDefault(base, new HashSet<>())){
-                        for(StoreField storeField : x.getStoreFields()){
-                            if(storeField.getFieldRef().resolve().equals(field)){
-                                CPFact inFact = solver.getInFact(storeField);
-                                res = cp.meetValue(res, inFact.get(storeField.getRValue()));
-                            }
-                        }
+                    for(Obj obj : pta.getPointsToSet(base)){
+                        res = cp.meetValue(res, fieldValues.getOrDefault(obj, field, Value.getUndef()));
                     }
                 }
                 change |= out.update(left, res);
@@ -199,9 +226,8 @@ public class InterConstantPropagation extends
             if(canHoldInt(storeArray.getRValue())){
                 ArrayAccess access = storeArray.getArrayAccess();
 
-                for(Var x : alias.getOrDefault(access.getBase(), new HashSet<>())){
-                    x.getLoadArrays().forEach(solver::add);
-                }
+                getAliasedAccesses(access.getBase(), Var::getLoadArrays,
+                        objLoadArrays, aliasedLoadArrays).forEach(solver::add);
             }
             change = true;
         }else if(stmt instanceof LoadArray loadArray){      // NOTE: x = a[i]
@@ -210,12 +236,11 @@ public class InterConstantPropagation extends
                 Value res = Value.getUndef();
                 ArrayAccess access = loadArray.getArrayAccess();
 
-                for(Var x : alias.getOrDefault(access.getBase(), new HashSet<>())){
-                    for(StoreArray storeArray : x.getStoreArrays()){
-                        CPFact inFact = solver.getInFact(storeArray);
-                        if(checkIndex(in.get(access.getIndex()), inFact.get(storeArray.getArrayAccess().getIndex()))){
-                            res = cp.meetValue(res, inFact.get(storeArray.getRValue()));
-                        }
+                for(StoreArray storeArray : getAliasedAccesses(access.getBase(),
+                        Var::getStoreArrays, objStoreArrays, aliasedStoreArrays)){
+                    CPFact inFact = solver.getInFact(storeArray);
+                    if(checkIndex(in.get(access.getIndex()), inFact.get(storeArray.getArrayAccess().getIndex()))){
+                        res = cp.meetValue(res, inFact.get(storeArray.getRValue()));
                     }
                 }
                 change |= out.update(left, res);
@@ -236,26 +261,29 @@ public class InterConstantPropagation extends
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
 
-        return out.copy();
+        // the solver only meets the edge fact into the IN fact of
+        // the target node, thus the OUT fact is passed on without copying
+        return out;
     }
 
         @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
 
-        CPFact ret = out.copy();
         LValue L = edge.getSource().getDef().orElse(null);
-        if(L instanceof Var x){
+        if(L instanceof Var x && !out.get(x).isUndef()){
+            CPFact ret = out.copy();
             ret.remove(x);
+            return ret;
         }
-        return ret;
+        return out;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
         // TODO - finish me
 
-        CPFact ret = new CPFact();
+        CPFact ret = cp.newInitialFact();
 
         List<Var> formal = edge.getCallee().getIR().getParams();
         List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
@@ -273,7 +301,7 @@ public class InterConstantPropagation extends
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
         // TODO - finish me
 
-        CPFact ret = new CPFact();
+        CPFact ret = cp.newInitialFact();
         LValue L = edge.getCallSite().getDef().orElse(null);
 
         if(L instanceof Var def && canHoldInt(def)){
@@ -284,6 +312,23 @@ public class InterConstantPropagation extends
         return ret;
     }
 
+    /**
+     * @return the heap accesses (given by getAccesses) of base and of
+     * the variables which may be aliases of base. The result is computed
+     * once per base from the index, and then kept in given cache.
+     */
+    private <S extends Stmt> Set<S> getAliasedAccesses(
+            Var base, Function<Var, List<S>> getAccesses,
+            MultiMap<Obj, S> index, Map<Var, Set<S>> cache) {
+        return cache.computeIfAbsent(base, b -> {
+            Set<S> accesses = new LinkedHashSet<>(getAccesses.apply(b));
+            for (Obj obj : pta.getPointsToSet(b)) {
+                accesses.addAll(index.get(obj));
+            }
+            return Collections.unmodifiableSet(accesses);
+        });
+    }
+
     private boolean checkIndex(Value x, Value y){
         if(x.isUndef() || y.isUndef()){
             return false;
@@ -22,16 +22,13 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
-import fj.P;
-import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
-import pascal.taie.ir.stmt.Stmt;
 
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Set;
 
 /**
@@ -41,13 +38,15 @@ import java.util.Set;
  */
 class InterSolver<Method, Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(InterSolver.class);
+
     private final InterDataflowAnalysis<Node, Fact> analysis;
 
     private final ICFG<Method, Node> icfg;
 
     private DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    private InterWorkList<Method, Node> workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
@@ -65,7 +64,7 @@ class InterSolver<Method, Node, Fact> {
 
     private void initialize() {
         // TODO - finish me
-        workList = new LinkedList<>();
+        workList = new InterWorkList<>(icfg);
 
         Set<Node> entries = new HashSet<>();
 
@@ -106,13 +105,18 @@ class InterSolver<Method, Node, Fact> {
                 workList.addAll(icfg.getSuccsOf(cur));
             }
         }
+        logger.info("Inter-procedural solver visited {} nodes ({} ICFG nodes)",
+                workList.getVisits(), workList.size());
     }
 
-    public Fact getInFact(Node node){
+    public Fact getInFact(Node node) {
         return result.getInFact(node);
     }
 
-    public void add(Node node){
-        this.workList.add(node);
+    /**
+     * Adds a node to the work list, if it is not pending yet.
+     */
+    public void add(Node node) {
+        workList.add(node);
     }
-}
\ No newline at end of file
+}
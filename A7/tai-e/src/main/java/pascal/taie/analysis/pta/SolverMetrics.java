@@ -0,0 +1,237 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.AnalysisOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counters and phase timers of pointer analysis solver.
+ * <p>
+ * The time of each phase is exclusive, i.e., when a phase is entered
+ * within another phase (e.g., addReachable within processCall), the time
+ * spent in the inner phase is not counted in the outer one.
+ * The metrics are logged after solving, and exported as JSON to the file
+ * given by option "metrics", or next to the dumped points-to sets
+ * (as "*-metrics.json") if the option is absent.
+ */
+public class SolverMetrics {
+
+    private static final Logger logger = LogManager.getLogger(SolverMetrics.class);
+
+    public enum Phase {
+        ADD_REACHABLE("addReachable"),
+        PROPAGATE("propagate"),
+        PROCESS_CALL("processCall");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private long workListEntries = 0;
+
+    private long propagatedObjects = 0;
+
+    private long pfgEdges = 0;
+
+    private long callEdges = 0;
+
+    private long mergedPointers = 0;
+
+    private final long[] phaseTimes = new long[Phase.values().length];
+
+    /**
+     * Stack of the entered phases (ordinals).
+     */
+    private int[] phaseStack = new int[8];
+
+    private int depth = 0;
+
+    /**
+     * Time which is not spent in any phase.
+     */
+    private long otherTime = 0;
+
+    private long lastTime;
+
+    private long startTime;
+
+    private long totalTime = 0;
+
+    private long peakHeap = 0;
+
+    /**
+     * Starts the timers of this metrics.
+     */
+    public void start() {
+        ManagementFactory.getMemoryPoolMXBeans()
+                .forEach(MemoryPoolMXBean::resetPeakUsage);
+        startTime = lastTime = System.nanoTime();
+    }
+
+    /**
+     * Stops the timers of this metrics, and records peak heap usage.
+     */
+    public void stop() {
+        long now = System.nanoTime();
+        totalTime = now - startTime;
+        otherTime += now - lastTime;
+        peakHeap = ManagementFactory.getMemoryPoolMXBeans()
+                .stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    /**
+     * Enters a phase. Each call must be paired with a call of
+     * {@link #exitPhase()}.
+     */
+    public void enterPhase(Phase phase) {
+        charge(System.nanoTime());
+        if (depth == phaseStack.length) {
+            phaseStack = Arrays.copyOf(phaseStack, depth * 2);
+        }
+        phaseStack[depth++] = phase.ordinal();
+    }
+
+    /**
+     * Exits the current phase.
+     */
+    public void exitPhase() {
+        charge(System.nanoTime());
+        --depth;
+    }
+
+    /**
+     * Charges the time elapsed since last event to the current phase.
+     */
+    private void charge(long now) {
+        if (depth == 0) {
+            otherTime += now - lastTime;
+        } else {
+            phaseTimes[phaseStack[depth - 1]] += now - lastTime;
+        }
+        lastTime = now;
+    }
+
+    public void addWorkListEntries(long n) {
+        workListEntries += n;
+    }
+
+    public void addPropagatedObjects(long n) {
+        propagatedObjects += n;
+    }
+
+    public void addPFGEdge() {
+        ++pfgEdges;
+    }
+
+    public void addCallEdge() {
+        ++callEdges;
+    }
+
+    public void addMergedPointers(long n) {
+        mergedPointers += n;
+    }
+
+    /**
+     * @return the metrics as an ordered map, whose time values
+     * are in milliseconds, and heap in bytes.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("workListEntries", workListEntries);
+        map.put("propagatedObjects", propagatedObjects);
+        map.put("pfgEdges", pfgEdges);
+        map.put("callEdges", callEdges);
+        map.put("mergedPointers", mergedPointers);
+        Map<String, Object> times = new LinkedHashMap<>();
+        times.put("total", toMillis(totalTime));
+        for (Phase phase : Phase.values()) {
+            times.put(phase.toString(), toMillis(phaseTimes[phase.ordinal()]));
+        }
+        times.put("other", toMillis(otherTime));
+        map.put("timeMs", times);
+        map.put("peakHeapBytes", peakHeap);
+        return map;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Logs the metrics, and exports them to JSON file if the options
+     * specify the output file (see {@link SolverMetrics}).
+     */
+    public void process(AnalysisOptions options) {
+        Map<String, Object> map = toMap();
+        logger.info("Solver metrics: {}", map);
+        File output = getOutputFile(options);
+        if (output != null) {
+            logger.info("Dumping solver metrics to {} ...", output);
+            try {
+                new ObjectMapper()
+                        .writerWithDefaultPrettyPrinter()
+                        .writeValue(output, map);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write solver metrics", e);
+            }
+        }
+    }
+
+    private static File getOutputFile(AnalysisOptions options) {
+        String metrics = options.getString("metrics");
+        if (metrics != null) {
+            return new File(metrics);
+        }
+        String file = options.getString("file");
+        if ("dump".equals(options.getString("action")) && file != null) {
+            String base = file.toLowerCase(Locale.ROOT).endsWith(".txt") ?
+                    file.substring(0, file.length() - 4) : file;
+            return new File(base + "-metrics.json");
+        }
+        return null;
+    }
+}
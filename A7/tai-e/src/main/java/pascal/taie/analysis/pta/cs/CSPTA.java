@@ -56,6 +56,7 @@ public class CSPTA extends ProgramAnalysis {
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
         ResultProcessor.process(options, result);
+        solver.getMetrics().process(options);
         return result;
     }
 
@@ -49,11 +49,40 @@ public interface PointsToSet extends Iterable<CSObj> {
      */
     boolean addAll(PointsToSet pts);
 
+    /**
+     * Adds all objects in given pts to this set.
+     *
+     * @return a new points-to set which consists of the objects that are
+     * added to this set by the call, i.e., pts - this (before the call).
+     */
+    default PointsToSet addAllDiff(PointsToSet pts) {
+        PointsToSet diff = PointsToSetFactory.make();
+        for (CSObj obj : pts) {
+            if (addObject(obj)) {
+                diff.addObject(obj);
+            }
+        }
+        return diff;
+    }
+
     /**
      * @return true if this set contains given object, otherwise false.
      */
     boolean contains(CSObj obj);
 
+    /**
+     * @return true if this set contains all objects in given pts,
+     * otherwise false.
+     */
+    default boolean containsAll(PointsToSet pts) {
+        for (CSObj obj : pts) {
+            if (!contains(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return whether this set if empty.
      */
@@ -0,0 +1,485 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistent (immutable) map implemented as a hash array mapped trie.
+ * <p>
+ * {@link #plus(Object, Object)} and {@link #minus(Object)} return a new map
+ * and leave this map unchanged. The new map shares all the trie nodes
+ * except the ones on the path to the updated key, thus an update takes
+ * O(log n) time and space. If an update does not change the mappings,
+ * it returns this map itself.
+ * <p>
+ * This map does not permit null keys or values. The mutators of
+ * {@link java.util.Map} are unsupported.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * Number of hash bits consumed by each level of the trie.
+     */
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * Maximum depth of the trie, including the collision nodes.
+     */
+    private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY =
+            new PersistentHashMap<>(null, 0);
+
+    /**
+     * Root of the trie, or null if this map is empty.
+     */
+    private final Node root;
+
+    private final int size;
+
+    private Set<Entry<K, V>> entrySet;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the empty persistent map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return root == null ? null : (V) root.find(0, hash(key), key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return a map which has the mappings of this map, and maps key to value.
+     * If key is already mapped to an equal value, returns this map.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        boolean[] added = { false };
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root)
+                .put(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @return a map which has the mappings of this map except the one
+     * of given key. If this map does not contain key, returns this map.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() :
+                new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof PersistentHashMap<?, ?> that && root == that.root) {
+            // maps sharing the same trie are equal
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * Node of the trie. The mappings in a node are stored in an array
+     * of key-value pairs.
+     */
+    private abstract static class Node {
+
+        /**
+         * @return the pairs of this node. For {@link BitmapNode}s,
+         * a pair with null key holds a sub-node as its value.
+         */
+        abstract Object[] pairs();
+
+        /**
+         * @return the value of given key, or null if the key is absent.
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * @return the node with the mapping added, or this node if
+         * the mapping already exists. Sets added[0] to true if the
+         * key was absent.
+         */
+        abstract Node put(int shift, int hash, Object key, Object value,
+                          boolean[] added);
+
+        /**
+         * @return the node without the mapping of given key, or this node
+         * if the key is absent, or null if the resulting node is empty.
+         */
+        abstract Node remove(int shift, int hash, Object key);
+
+        void forEach(BiConsumer<Object, Object> action) {
+            Object[] pairs = pairs();
+            for (int i = 0; i < pairs.length; i += 2) {
+                if (pairs[i] == null) {
+                    ((Node) pairs[i + 1]).forEach(action);
+                } else {
+                    action.accept(pairs[i], pairs[i + 1]);
+                }
+            }
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        /**
+         * The i-th bit is set if the hash chunk i is present in this node.
+         */
+        private final int bitmap;
+
+        private final Object[] pairs;
+
+        private BitmapNode(int bitmap, Object[] pairs) {
+            this.bitmap = bitmap;
+            this.pairs = pairs;
+        }
+
+        private static int bit(int shift, int hash) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        /**
+         * @return index of the pair of given bit in {@link #pairs}.
+         */
+        private int indexOf(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object[] pairs() {
+            return pairs;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = indexOf(bit);
+            Object k = pairs[i];
+            if (k == null) {
+                return ((Node) pairs[i + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? pairs[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(shift, hash);
+            int i = indexOf(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] newPairs = new Object[pairs.length + 2];
+                System.arraycopy(pairs, 0, newPairs, 0, i);
+                newPairs[i] = key;
+                newPairs[i + 1] = value;
+                System.arraycopy(pairs, i, newPairs, i + 2, pairs.length - i);
+                return new BitmapNode(bitmap | bit, newPairs);
+            }
+            Object k = pairs[i];
+            Object v = pairs[i + 1];
+            if (k == null) {
+                Node node = (Node) v;
+                Node newNode = node.put(shift + BITS, hash, key, value, added);
+                return newNode == node ? this : with(i + 1, newNode);
+            }
+            if (key.equals(k)) {
+                return value.equals(v) ? this : with(i + 1, value);
+            }
+            added[0] = true;
+            Node node = makeNode(shift + BITS, k, v, hash, key, value);
+            Object[] newPairs = pairs.clone();
+            newPairs[i] = null;
+            newPairs[i + 1] = node;
+            return new BitmapNode(bitmap, newPairs);
+        }
+
+        private static Node makeNode(int shift, Object k1, Object v1,
+                                     int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[]{ k1, v1, k2, v2 });
+            }
+            boolean[] added = { false };
+            return EMPTY.put(shift, h1, k1, v1, added)
+                    .put(shift, h2, k2, v2, added);
+        }
+
+        private BitmapNode with(int i, Object o) {
+            Object[] newPairs = pairs.clone();
+            newPairs[i] = o;
+            return new BitmapNode(bitmap, newPairs);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = indexOf(bit);
+            Object k = pairs[i];
+            if (k == null) {
+                Node node = (Node) pairs[i + 1];
+                Node newNode = node.remove(shift + BITS, hash, key);
+                if (newNode == node) {
+                    return this;
+                } else if (newNode != null) {
+                    return with(i + 1, newNode);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newPairs = new Object[pairs.length - 2];
+            System.arraycopy(pairs, 0, newPairs, 0, i);
+            System.arraycopy(pairs, i + 2, newPairs, i, newPairs.length - i);
+            return new BitmapNode(bitmap & ~bit, newPairs);
+        }
+    }
+
+    /**
+     * Node of the keys whose hashes are the same.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+
+        private final Object[] pairs;
+
+        private CollisionNode(int hash, Object[] pairs) {
+            this.hash = hash;
+            this.pairs = pairs;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                if (key.equals(pairs[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object[] pairs() {
+            return pairs;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int i = indexOf(key);
+            return i >= 0 ? pairs[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // moves this node down to a bitmap node, then puts the key
+                return new BitmapNode(BitmapNode.bit(shift, this.hash),
+                        new Object[]{ null, this })
+                        .put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (value.equals(pairs[i + 1])) {
+                    return this;
+                }
+                Object[] newPairs = pairs.clone();
+                newPairs[i + 1] = value;
+                return new CollisionNode(hash, newPairs);
+            }
+            added[0] = true;
+            Object[] newPairs = new Object[pairs.length + 2];
+            System.arraycopy(pairs, 0, newPairs, 0, pairs.length);
+            newPairs[pairs.length] = key;
+            newPairs[pairs.length + 1] = value;
+            return new CollisionNode(hash, newPairs);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            if (pairs.length == 2) {
+                return null;
+            }
+            Object[] newPairs = new Object[pairs.length - 2];
+            System.arraycopy(pairs, 0, newPairs, 0, i);
+            System.arraycopy(pairs, i + 2, newPairs, i, newPairs.length - i);
+            return new CollisionNode(hash, newPairs);
+        }
+    }
+
+    /**
+     * Iterates the entries by a depth-first traversal of the trie.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Object[][] stack = new Object[MAX_DEPTH][];
+
+        private final int[] positions = new int[MAX_DEPTH];
+
+        private int depth = -1;
+
+        private Entry<K, V> next;
+
+        private EntryIterator() {
+            if (root != null) {
+                stack[++depth] = root.pairs();
+                advance();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] pairs = stack[depth];
+                int pos = positions[depth];
+                if (pos >= pairs.length) {
+                    --depth;
+                    continue;
+                }
+                positions[depth] = pos + 2;
+                if (pairs[pos] == null) {
+                    stack[++depth] = ((Node) pairs[pos + 1]).pairs();
+                    positions[depth] = 0;
+                } else {
+                    next = new SimpleImmutableEntry<>(
+                            (K) pairs[pos], (V) pairs[pos + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> result = next;
+            advance();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sparse bit set of non-negative integers.
+ * <p>
+ * The bits are grouped into fixed-size blocks of words, and only the blocks
+ * that contain set bits are stored (sorted by block number), thus the memory
+ * used by a set is proportional to the number of its occupied blocks instead
+ * of its largest element. Unions are computed block by block, one word
+ * at a time.
+ * <p>
+ * The iterators of this set are not fail-fast, i.e., the set must not be
+ * modified while it is being iterated.
+ */
+public class SparseBitSet implements Iterable<Integer> {
+
+    private static final int WORD_SHIFT = 6;
+
+    private static final int BLOCK_SHIFT = 9;
+
+    /**
+     * Number of words in each block.
+     */
+    private static final int BLOCK_WORDS = 1 << (BLOCK_SHIFT - WORD_SHIFT);
+
+    private static final int WORD_MASK = BLOCK_WORDS - 1;
+
+    private static final int[] EMPTY_KEYS = {};
+
+    private static final long[] EMPTY_WORDS = {};
+
+    /**
+     * Block numbers of the stored blocks in ascending order.
+     * Only the first {@link #blocks} elements are valid.
+     */
+    private int[] keys = EMPTY_KEYS;
+
+    /**
+     * Words of the stored blocks, the i-th block occupies
+     * words[i * BLOCK_WORDS, (i + 1) * BLOCK_WORDS).
+     */
+    private long[] words = EMPTY_WORDS;
+
+    /**
+     * Number of stored blocks.
+     */
+    private int blocks = 0;
+
+    /**
+     * Number of set bits.
+     */
+    private int cardinality = 0;
+
+    public SparseBitSet() {
+    }
+
+    public SparseBitSet(SparseBitSet other) {
+        keys = Arrays.copyOf(other.keys, other.blocks);
+        words = Arrays.copyOf(other.words, other.blocks * BLOCK_WORDS);
+        blocks = other.blocks;
+        cardinality = other.cardinality;
+    }
+
+    /**
+     * Sets the bit at given index.
+     *
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean set(int bitIndex) {
+        checkIndex(bitIndex);
+        int key = bitIndex >>> BLOCK_SHIFT;
+        int pos = Arrays.binarySearch(keys, 0, blocks, key);
+        if (pos < 0) {
+            pos = -(pos + 1);
+            insertBlock(pos, key);
+        }
+        int w = pos * BLOCK_WORDS + ((bitIndex >>> WORD_SHIFT) & WORD_MASK);
+        long mask = 1L << bitIndex;
+        if ((words[w] & mask) != 0) {
+            return false;
+        }
+        words[w] |= mask;
+        ++cardinality;
+        return true;
+    }
+
+    /**
+     * @return true if the bit at given index is set, otherwise false.
+     */
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = Arrays.binarySearch(keys, 0, blocks, bitIndex >>> BLOCK_SHIFT);
+        if (pos < 0) {
+            return false;
+        }
+        int w = pos * BLOCK_WORDS + ((bitIndex >>> WORD_SHIFT) & WORD_MASK);
+        return (words[w] & (1L << bitIndex)) != 0;
+    }
+
+    /**
+     * @return the number of set bits in this set.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Sets all bits that are set in given set.
+     *
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean or(SparseBitSet other) {
+        return union(other, null);
+    }
+
+    /**
+     * Sets all bits that are set in given set, and returns the bits
+     * that are newly set in this set, i.e., other - this (before the call).
+     *
+     * @return a new set consisting of the newly-set bits.
+     * If this set does not change, the result is empty.
+     */
+    public SparseBitSet orDiff(SparseBitSet other) {
+        SparseBitSet diff = new SparseBitSet();
+        union(other, diff);
+        return diff;
+    }
+
+    /**
+     * @return true if all bits that are set in given set are also set
+     * in this set, otherwise false.
+     */
+    public boolean containsAll(SparseBitSet other) {
+        if (other == this) {
+            return true;
+        }
+        if (other.cardinality > cardinality) {
+            return false;
+        }
+        for (int i = 0, j = 0; j < other.blocks; ++j) {
+            while (i < blocks && keys[i] < other.keys[j]) {
+                ++i;
+            }
+            int otherWord = j * BLOCK_WORDS;
+            if (i < blocks && keys[i] == other.keys[j]) {
+                int word = i * BLOCK_WORDS;
+                for (int k = 0; k < BLOCK_WORDS; ++k) {
+                    if ((other.words[otherWord + k] & ~words[word + k]) != 0) {
+                        return false;
+                    }
+                }
+            } else {
+                for (int k = 0; k < BLOCK_WORDS; ++k) {
+                    if (other.words[otherWord + k] != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unions other into this set. If diff is not null, the newly-set bits
+     * are stored in diff, which must be empty.
+     */
+    private boolean union(SparseBitSet other, SparseBitSet diff) {
+        if (other == this || other.blocks == 0) {
+            return false;
+        }
+        int[] otherKeys = other.keys;
+        long[] otherWords = other.words;
+        int otherBlocks = other.blocks;
+        // count the blocks of other that are absent in this set
+        int absent = 0;
+        for (int i = 0, j = 0; j < otherBlocks; ) {
+            if (i == blocks || keys[i] > otherKeys[j]) {
+                ++absent;
+                ++j;
+            } else if (keys[i] < otherKeys[j]) {
+                ++i;
+            } else {
+                ++i;
+                ++j;
+            }
+        }
+        int total = blocks + absent;
+        int[] newKeys = keys;
+        long[] newWords = words;
+        if (total > keys.length) {
+            int capacity = Math.max(total, blocks + (blocks >> 1));
+            newKeys = new int[capacity];
+            newWords = new long[capacity * BLOCK_WORDS];
+        }
+        if (diff != null) {
+            diff.keys = new int[otherBlocks];
+            diff.words = new long[otherBlocks * BLOCK_WORDS];
+        }
+        // merge from the back, so that the blocks can be moved in place
+        // when the arrays are not re-allocated
+        int added = 0;
+        int d = otherBlocks;
+        int i = blocks - 1, j = otherBlocks - 1;
+        for (int k = total - 1; k >= 0; --k) {
+            int to = k * BLOCK_WORDS;
+            if (j < 0 || (i >= 0 && keys[i] > otherKeys[j])) {
+                // block only in this set
+                newKeys[k] = keys[i];
+                System.arraycopy(words, i * BLOCK_WORDS, newWords, to, BLOCK_WORDS);
+                --i;
+            } else if (i < 0 || keys[i] < otherKeys[j]) {
+                // block only in other set
+                newKeys[k] = otherKeys[j];
+                System.arraycopy(otherWords, j * BLOCK_WORDS, newWords, to, BLOCK_WORDS);
+                int bits = 0;
+                for (int w = 0; w < BLOCK_WORDS; ++w) {
+                    bits += Long.bitCount(otherWords[j * BLOCK_WORDS + w]);
+                }
+                added += bits;
+                if (diff != null) {
+                    --d;
+                    diff.keys[d] = otherKeys[j];
+                    System.arraycopy(otherWords, j * BLOCK_WORDS,
+                            diff.words, d * BLOCK_WORDS, BLOCK_WORDS);
+                }
+                --j;
+            } else {
+                // block in both sets
+                int from = i * BLOCK_WORDS;
+                int otherFrom = j * BLOCK_WORDS;
+                int bits = 0;
+                boolean changed = false;
+                if (diff != null) {
+                    --d;
+                }
+                for (int w = 0; w < BLOCK_WORDS; ++w) {
+                    long old = words[from + w];
+                    long newBits = otherWords[otherFrom + w] & ~old;
+                    newWords[to + w] = old | newBits;
+                    if (newBits != 0) {
+                        bits += Long.bitCount(newBits);
+                        changed = true;
+                        if (diff != null) {
+                            diff.words[d * BLOCK_WORDS + w] = newBits;
+                        }
+                    }
+                }
+                added += bits;
+                newKeys[k] = keys[i];
+                if (diff != null) {
+                    if (changed) {
+                        diff.keys[d] = keys[i];
+                    } else {
+                        ++d; // the slot is not used
+                    }
+                }
+                --i;
+                --j;
+            }
+        }
+        keys = newKeys;
+        words = newWords;
+        blocks = total;
+        cardinality += added;
+        if (diff != null) {
+            diff.compact(d, added);
+        }
+        return added > 0;
+    }
+
+    /**
+     * Moves the blocks stored from position start to the front of the arrays.
+     */
+    private void compact(int start, int cardinality) {
+        int n = keys.length - start;
+        if (start > 0) {
+            System.arraycopy(keys, start, keys, 0, n);
+            System.arraycopy(words, start * BLOCK_WORDS, words, 0, n * BLOCK_WORDS);
+            Arrays.fill(words, n * BLOCK_WORDS, words.length, 0L);
+        }
+        this.blocks = n;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * @return the index of the first set bit that occurs on or after
+     * given index, or -1 if there is no such bit.
+     */
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int key = fromIndex >>> BLOCK_SHIFT;
+        int pos = Arrays.binarySearch(keys, 0, blocks, key);
+        int w;
+        long word;
+        if (pos >= 0) {
+            w = pos * BLOCK_WORDS + ((fromIndex >>> WORD_SHIFT) & WORD_MASK);
+            word = words[w] & (-1L << fromIndex);
+        } else {
+            // starts from the first word of next block
+            w = -(pos + 1) * BLOCK_WORDS;
+            word = 0;
+            --w;
+        }
+        int end = blocks * BLOCK_WORDS;
+        while (word == 0) {
+            if (++w >= end) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return toBitIndex(w, word);
+    }
+
+    /**
+     * @return iterator over the indexes of set bits in ascending order.
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            /**
+             * Position of the next word to be loaded.
+             */
+            private int w = 0;
+
+            /**
+             * Remaining bits of current word, i.e., words[w - 1].
+             */
+            private long word = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0) {
+                    if (w >= blocks * BLOCK_WORDS) {
+                        return false;
+                    }
+                    word = words[w++];
+                }
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bitIndex = toBitIndex(w - 1, word);
+                word &= word - 1; // clears the lowest set bit
+                return bitIndex;
+            }
+        };
+    }
+
+    /**
+     * @return a stream of the indexes of set bits in ascending order.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(Spliterators.spliterator(
+                iterator(), cardinality, Spliterator.ORDERED |
+                        Spliterator.DISTINCT | Spliterator.SORTED |
+                        Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @return a copy of this set.
+     */
+    public SparseBitSet copy() {
+        return new SparseBitSet(this);
+    }
+
+    private int toBitIndex(int w, long word) {
+        return (keys[w / BLOCK_WORDS] << BLOCK_SHIFT)
+                + ((w & WORD_MASK) << WORD_SHIFT)
+                + Long.numberOfTrailingZeros(word);
+    }
+
+    private void insertBlock(int pos, int key) {
+        if (blocks == keys.length) {
+            int capacity = Math.max(2, blocks + (blocks >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            words = Arrays.copyOf(words, capacity * BLOCK_WORDS);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, blocks - pos);
+        System.arraycopy(words, pos * BLOCK_WORDS,
+                words, (pos + 1) * BLOCK_WORDS, (blocks - pos) * BLOCK_WORDS);
+        keys[pos] = key;
+        Arrays.fill(words, pos * BLOCK_WORDS, (pos + 1) * BLOCK_WORDS, 0L);
+        ++blocks;
+    }
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SparseBitSet that)) {
+            return false;
+        }
+        // blocks are stored only when they contain set bits,
+        // so equal sets have the same blocks
+        return cardinality == that.cardinality
+                && Arrays.equals(keys, 0, blocks, that.keys, 0, that.blocks)
+                && Arrays.equals(words, 0, blocks * BLOCK_WORDS,
+                that.words, 0, that.blocks * BLOCK_WORDS);
+    }
+
+    @Override
+    public int hashCode() {
+        // same as java.util.BitSet, i.e., each word is weighted by
+        // its position in the whole bit set
+        long h = 1234;
+        for (int b = 0; b < blocks; ++b) {
+            long base = (long) keys[b] * BLOCK_WORDS;
+            for (int i = 0; i < BLOCK_WORDS; ++i) {
+                h ^= words[b * BLOCK_WORDS + i] * (base + i + 1);
+            }
+        }
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        iterator().forEachRemaining((int i) -> joiner.add(Integer.toString(i)));
+        return joiner.toString();
+    }
+}
@@ -31,8 +31,16 @@ public class InterCPAliasTest {
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
 
     void test(String inputClass) {
+        test(inputClass, null);
+    }
+
+    /**
+     * @param options options added to the ones of inter-constprop, or null
+     */
+    void test(String inputClass, String options) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:true;pta:cspta",
+                "edge-refine:false;alias-aware:true;pta:cspta" +
+                        (options != null ? ";" + options : ""),
                 "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta"
                 //, "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                            // to output ICFGs for the test cases
@@ -83,4 +91,14 @@ public class InterCPAliasTest {
     public void testStaticFieldMultiStores() {
         test("StaticFieldMultiStores");
     }
+
+    @Test
+    public void testInterprocedural2DenseFact() {
+        test("Interprocedural2", "fact:dense");
+    }
+
+    @Test
+    public void testInstanceFieldPersistentFact() {
+        test("InstanceField", "fact:persistent");
+    }
 }
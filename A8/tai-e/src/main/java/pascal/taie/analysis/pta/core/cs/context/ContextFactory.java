@@ -0,0 +1,61 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import java.util.List;
+
+/**
+ * Factory of contexts.
+ *
+ * @param <T> type of context elements
+ */
+public interface ContextFactory<T> {
+
+    /**
+     * @return the empty context.
+     */
+    Context getEmptyContext();
+
+    /**
+     * @return a context that consists of given context elements.
+     */
+    Context make(List<T> elements);
+
+    /**
+     * @return a context that consists of the last k elements of given
+     * context. If the context has no more than k elements,
+     * then returns the context itself.
+     */
+    Context makeLastK(Context context, int k);
+
+    /**
+     * Appends an element to a context, and keeps at most limit elements
+     * (i.e., the last limit elements) in the resulting context.
+     *
+     * @param parent the context to be appended.
+     * @param elem   the element to be appended.
+     * @param limit  the maximum length of the resulting context.
+     * @return the resulting context.
+     */
+    Context append(Context parent, T elem, int limit);
+}
@@ -23,7 +23,8 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
-import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.context.ContextFactory;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -36,9 +37,11 @@ import pascal.taie.language.classes.JMethod;
  */
 public class _2CallSelector implements ContextSelector {
 
+    private final ContextFactory<Invoke> factory = new TrieContext.Factory<>();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return factory.getEmptyContext();
     }
 
     @Override
@@ -56,22 +59,13 @@ public class _2CallSelector implements ContextSelector {
     }
 
     private Context calc(Context context, Invoke callSite){
-        int n = context.getLength();
-        if(n > 0)
-            return ListContext.make(context.getElementAt(n - 1), callSite);
-        else
-            return ListContext.make(callSite);
+        return factory.append(context, callSite, 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // TODO - finish me
 
-        Context context = method.getContext();
-        int n = context.getLength();
-        if(n < 2)
-            return context;
-        else
-            return ListContext.make(context.getElementAt(n - 1));
+        return factory.makeLastK(method.getContext(), 1);
     }
 }
@@ -23,21 +23,25 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
-import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.context.ContextFactory;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
 
 /**
  * Implementation of 2-type sensitivity.
  */
 public class _2TypeSelector implements ContextSelector {
 
+    private final ContextFactory<Type> factory = new TrieContext.Factory<>();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return factory.getEmptyContext();
     }
 
     @Override
@@ -51,23 +55,13 @@ public class _2TypeSelector implements ContextSelector {
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
 
-        Context context = recv.getContext();
-        int n = context.getLength();
-        if(n > 0)
-            return ListContext.make(context.getElementAt(n - 1), recv.getObject().getContainerType());
-        else
-            return ListContext.make(recv.getObject().getContainerType());
+        return factory.append(recv.getContext(), recv.getObject().getContainerType(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // TODO - finish me
 
-        Context context = method.getContext();
-        int n = context.getLength();
-        if(n < 2)
-            return context;
-        else
-            return ListContext.make(context.getElementAt(n - 1));
+        return factory.makeLastK(method.getContext(), 1);
     }
 }
\ No newline at end of file
@@ -24,22 +24,73 @@ package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 
 import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Queue;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * By default, the work list is a queue of entries, and each call of
+ * {@link #addEntry} enqueues a new entry. In merging mode, each pointer
+ * has at most one pending entry, and the points-to sets added for
+ * a pointer are merged into its pending entry until the entry is polled,
+ * so that the solver propagates the merged set in one pass.
  */
 class WorkList {
 
     private final Queue<Entry> entries = new ArrayDeque<>();
 
+    /**
+     * Whether the entries of the same pointer are merged.
+     */
+    private final boolean merging;
+
+    /**
+     * Pending points-to sets of the pointers in merging mode,
+     * in the order of their first additions.
+     */
+    private final Map<Pointer, PendingSet> pendingSets = new LinkedHashMap<>();
+
+    /**
+     * Number of calls to {@link #addEntry}.
+     */
+    private long addedEntries = 0;
+
+    /**
+     * Number of entries retrieved from this work list.
+     */
+    private long polledEntries = 0;
+
+    /**
+     * Factory of the copies of pending points-to sets in merging mode.
+     */
+    private final PointsToSetFactory ptsFactory;
+
+    WorkList(boolean merging, PointsToSetFactory ptsFactory) {
+        this.merging = merging;
+        this.ptsFactory = ptsFactory;
+    }
+
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        ++addedEntries;
+        if (merging) {
+            PendingSet pending = pendingSets.get(pointer);
+            if (pending == null) {
+                pendingSets.put(pointer, new PendingSet(pointsToSet));
+            } else {
+                pending.add(pointsToSet);
+            }
+        } else {
+            entries.add(new Entry(pointer, pointsToSet));
+        }
     }
 
     /**
@@ -47,14 +98,52 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        if (merging) {
+            Iterator<Map.Entry<Pointer, PendingSet>> it =
+                    pendingSets.entrySet().iterator();
+            if (!it.hasNext()) {
+                return null;
+            }
+            Map.Entry<Pointer, PendingSet> first = it.next();
+            it.remove();
+            ++polledEntries;
+            return new Entry(first.getKey(), first.getValue().pointsToSet);
+        } else {
+            Entry entry = entries.poll();
+            if (entry != null) {
+                ++polledEntries;
+            }
+            return entry;
+        }
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return entries.isEmpty() && pendingSets.isEmpty();
+    }
+
+    /**
+     * @return true if this work list merges the entries of the same pointer.
+     */
+    boolean isMerging() {
+        return merging;
+    }
+
+    /**
+     * @return the number of entries that have been added to this work list.
+     */
+    long getAddedEntries() {
+        return addedEntries;
+    }
+
+    /**
+     * @return the number of entries that have been retrieved from
+     * this work list.
+     */
+    long getPolledEntries() {
+        return polledEntries;
     }
 
     /**
@@ -63,4 +152,30 @@ class WorkList {
      */
     record Entry(Pointer pointer, PointsToSet pointsToSet) {
     }
+
+    /**
+     * Pending points-to set of a pointer in merging mode.
+     * The points-to sets given to {@link #addEntry} may be shared with
+     * the solver, so they are copied before the first merge.
+     */
+    private class PendingSet {
+
+        private PointsToSet pointsToSet;
+
+        private boolean copied = false;
+
+        private PendingSet(PointsToSet pointsToSet) {
+            this.pointsToSet = pointsToSet;
+        }
+
+        private void add(PointsToSet pts) {
+            if (!copied) {
+                PointsToSet copy = ptsFactory.newPointsToSet();
+                copy.addAll(pointsToSet);
+                pointsToSet = copy;
+                copied = true;
+            }
+            pointsToSet.addAll(pts);
+        }
+    }
 }
@@ -37,6 +37,8 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
 import java.util.*;
 
@@ -56,9 +58,17 @@ public class TaintAnalysiss {
 
     private final Set<JMethod> baseToResult;
 
-    private final Set<JMethod> argToBase;
+    /**
+     * Map from a method to the indexes of its arguments
+     * which are transferred to the base variable.
+     */
+    private final MultiMap<JMethod, Integer> argToBase;
 
-    private final Set<JMethod> argToResult;
+    /**
+     * Map from a method to the indexes of its arguments
+     * which are transferred to the result variable.
+     */
+    private final MultiMap<JMethod, Integer> argToResult;
 
     public TaintAnalysiss(Solver solver) {
         manager = new TaintManager();
@@ -72,8 +82,8 @@ public class TaintAnalysiss {
         logger.info(config);
 
         baseToResult = new HashSet<>();
-        argToBase = new HashSet<>();
-        argToResult = new HashSet<>();
+        argToBase = Maps.newMultiMap();
+        argToResult = Maps.newMultiMap();
 
         processTransfer();
     }
@@ -87,10 +97,10 @@ public class TaintAnalysiss {
                 baseToResult.add(method);
             }
             if(from >= 0 && to == -1){
-                argToBase.add(method);
+                argToBase.put(method, from);
             }
             if(from >= 0 && to == -2){
-                argToResult.add(method);
+                argToResult.put(method, from);
             }
         }
     }
@@ -150,12 +160,20 @@ public class TaintAnalysiss {
         return baseToResult.contains(callee);
     }
 
-    public boolean isArgToBase(JMethod callee){
-        return argToBase.contains(callee);
+    /**
+     * @return true if the index-th argument of callee is transferred
+     * to the base variable, otherwise false.
+     */
+    public boolean isArgToBase(JMethod callee, int index){
+        return argToBase.contains(callee, index);
     }
 
-    public boolean isArgToResult(JMethod callee){
-        return argToResult.contains(callee);
+    /**
+     * @return true if the index-th argument of callee is transferred
+     * to the result variable, otherwise false.
+     */
+    public boolean isArgToResult(JMethod callee, int index){
+        return argToResult.contains(callee, index);
     }
 
 }
@@ -65,12 +65,30 @@ public class TaintTest {
                 "cs:2-call;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
+    @Test
+    public void testInterTaintTransferMergedWorkList() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;worklist:merge;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
     @Test
     public void testTaintInList() {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
+    @Test
+    public void testTaintInListBitSet() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;pts:bitset;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testTaintInListParallel() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;threads:4;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
     @Test
     public void testTwoObjectTaint(){
         Tests.testCSPTA(DIR, "TwoObjectTaint", "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");